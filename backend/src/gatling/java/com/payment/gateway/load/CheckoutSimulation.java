@@ -0,0 +1,77 @@
+package com.payment.gateway.load;
+
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+
+import java.time.Duration;
+
+import static io.gatling.javaapi.core.CoreDsl.StringBody;
+import static io.gatling.javaapi.core.CoreDsl.exec;
+import static io.gatling.javaapi.core.CoreDsl.jsonPath;
+import static io.gatling.javaapi.core.CoreDsl.pause;
+import static io.gatling.javaapi.core.CoreDsl.scenario;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+/**
+ * Checkout flow under a stepped arrival rate.
+ *
+ * Each virtual user is one checkout: the merchant creates an order, the
+ * customer loads the public order, pays by UPI or card through the public
+ * endpoint, and the status is polled until the payment is final.
+ * payment_settled then fails the checkout if it did not settle within
+ * load.maxPolls polls.
+ */
+public class CheckoutSimulation extends GatewaySimulation {
+
+    private final ChainBuilder fetchOrder = exec(
+            http(named("public_order"))
+                    .get("/api/v1/orders/#{orderId}/public")
+                    .check(status().is(200)));
+
+    private final ChainBuilder pay = exec(
+            http(named("public_payment"))
+                    .post("/api/v1/payments/public")
+                    .body(StringBody(GatewaySimulation::paymentBody))
+                    .check(status().is(201))
+                    .check(jsonPath("$.id").saveAs("paymentId")));
+
+    private final ChainBuilder pollStatus = exec(session -> session.set("status", "processing"))
+            .asLongAs(session -> "processing".equals(session.getString("status")), "poll")
+            .on(pause(Duration.ofMillis(LoadProfile.POLL_INTERVAL_MS))
+                    .exec(http(named("payment_status"))
+                            .get("/api/v1/payments/#{paymentId}")
+                            .header("X-Api-Key", API_KEY)
+                            .header("X-Api-Secret", API_SECRET)
+                            .check(status().is(200))
+                            .check(jsonPath("$.status").saveAs("status")))
+                    .exitHereIfFailed()
+                    .exec(session -> session.getInt("poll") + 1 >= LoadProfile.MAX_POLLS
+                            ? session.set("status", "timeout")
+                            : session))
+            // One request per checkout that fails unless the payment reached a
+            // final status within the polling budget
+            .exec(http(named("payment_settled"))
+                    .get("/api/v1/payments/#{paymentId}")
+                    .header("X-Api-Key", API_KEY)
+                    .header("X-Api-Secret", API_SECRET)
+                    .check(status().is(200))
+                    .check(jsonPath("$.status").in("success", "failed")));
+
+    private final ScenarioBuilder checkout = scenario("checkout")
+            .exec(this::assignLevel)
+            .exec(createOrder)
+            .exec(fetchOrder)
+            .exec(pay)
+            .exitHereIfFailed()
+            .exec(pollStatus);
+
+    {
+        setUp(checkout.injectOpen(steppedArrivals())).protocols(httpProtocol);
+    }
+
+    @Override
+    String describe() {
+        return "checkouts";
+    }
+}
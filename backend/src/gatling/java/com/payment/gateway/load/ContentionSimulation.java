@@ -0,0 +1,79 @@
+package com.payment.gateway.load;
+
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Session;
+import io.gatling.javaapi.http.HttpRequestActionBuilder;
+
+import java.util.stream.IntStream;
+
+import static io.gatling.javaapi.core.CoreDsl.StringBody;
+import static io.gatling.javaapi.core.CoreDsl.exec;
+import static io.gatling.javaapi.core.CoreDsl.jsonPath;
+import static io.gatling.javaapi.core.CoreDsl.scenario;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+/**
+ * Concurrent checkout submissions for the same order.
+ *
+ * Each virtual user creates an order, then sends load.contenders public
+ * payments for it at once (as resources of the public order fetch, which
+ * Gatling issues in parallel). Each must answer 201 or 409. order_claimed
+ * then fails unless exactly one was accepted and the order left "created",
+ * so double charges and lost claims show up as errors at the level where
+ * they start. Run with -Dload.simulation=com.payment.gateway.load.ContentionSimulation.
+ */
+public class ContentionSimulation extends GatewaySimulation {
+
+    private static HttpRequestActionBuilder attempt(int index) {
+        return http(named("contended_payment"))
+                .post("/api/v1/payments/public")
+                .body(StringBody(GatewaySimulation::paymentBody))
+                .check(status().in(201, 409).saveAs("attempt" + index));
+    }
+
+    private final ChainBuilder contend = exec(
+            http(named("public_order"))
+                    .get("/api/v1/orders/#{orderId}/public")
+                    .check(status().is(200))
+                    .resources(IntStream.range(0, LoadProfile.CONTENDERS)
+                            .mapToObj(ContentionSimulation::attempt)
+                            .toArray(HttpRequestActionBuilder[]::new)));
+
+    private static Session countAccepted(Session session) {
+        int accepted = 0;
+        for (int i = 0; i < LoadProfile.CONTENDERS; i++) {
+            String key = "attempt" + i;
+            if (session.contains(key) && session.getInt(key) == 201) {
+                accepted++;
+            }
+        }
+        return session.set("accepted", accepted);
+    }
+
+    private final ChainBuilder verify = exec(
+            http(named("order_claimed"))
+                    .get("/api/v1/orders/#{orderId}")
+                    .header("X-Api-Key", API_KEY)
+                    .header("X-Api-Secret", API_SECRET)
+                    .check(status().is(200))
+                    .check(status().transformWithSession((code, session) -> session.getInt("accepted")).is(1))
+                    .check(jsonPath("$.status").in("attempted", "paid")));
+
+    private final ScenarioBuilder contention = scenario("contention")
+            .exec(this::assignLevel)
+            .exec(createOrder)
+            .exec(contend)
+            .exec(ContentionSimulation::countAccepted)
+            .exec(verify);
+
+    {
+        setUp(contention.injectOpen(steppedArrivals())).protocols(httpProtocol);
+    }
+
+    @Override
+    String describe() {
+        return "contended orders (" + LoadProfile.CONTENDERS + " payments each)";
+    }
+}
@@ -0,0 +1,76 @@
+package com.payment.gateway.load;
+
+import com.payment.gateway.PaymentGatewayApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the gateway for a load test: an embedded PostgreSQL plus the
+ * Spring Boot application on a random port, in TEST_MODE so processing
+ * time is fixed by TEST_PROCESSING_DELAY.
+ *
+ * Any system property named gateway.env.NAME is passed to the application
+ * as NAME, e.g. -Dgateway.env.PROCESSING_WORKERS=64.
+ */
+final class GatewayLauncher {
+
+    private static final String ENV_PREFIX = "gateway.env.";
+
+    private final EmbeddedPostgres postgres;
+    private final ConfigurableApplicationContext context;
+    private final String baseUrl;
+
+    private GatewayLauncher(EmbeddedPostgres postgres, ConfigurableApplicationContext context, String baseUrl) {
+        this.postgres = postgres;
+        this.context = context;
+        this.baseUrl = baseUrl;
+    }
+
+    static GatewayLauncher start(long processingDelayMs) {
+        try {
+            EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+
+            List<String> args = new ArrayList<>(List.of(
+                    "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                    "--spring.datasource.username=postgres",
+                    "--spring.datasource.password=",
+                    "--server.port=0",
+                    "--TEST_MODE=true",
+                    "--TEST_PAYMENT_SUCCESS=true",
+                    "--TEST_PROCESSING_DELAY=" + processingDelayMs,
+                    "--logging.level.com.payment=INFO"
+            ));
+            System.getProperties().stringPropertyNames().stream()
+                    .filter(name -> name.startsWith(ENV_PREFIX))
+                    .forEach(name -> args.add("--" + name.substring(ENV_PREFIX.length())
+                            + "=" + System.getProperty(name)));
+
+            ConfigurableApplicationContext context =
+                    SpringApplication.run(PaymentGatewayApplication.class, args.toArray(String[]::new));
+            String port = context.getEnvironment().getProperty("local.server.port");
+
+            return new GatewayLauncher(postgres, context, "http://localhost:" + port);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    void stop() {
+        context.close();
+        try {
+            postgres.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.payment.gateway.load;
+
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.OpenInjectionStep;
+import io.gatling.javaapi.core.Session;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import static io.gatling.javaapi.core.CoreDsl.StringBody;
+import static io.gatling.javaapi.core.CoreDsl.constantUsersPerSec;
+import static io.gatling.javaapi.core.CoreDsl.exec;
+import static io.gatling.javaapi.core.CoreDsl.incrementUsersPerSec;
+import static io.gatling.javaapi.core.CoreDsl.jsonPath;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+/**
+ * What every load simulation shares: the gateway under test (started here
+ * unless -Dgateway.baseUrl is set), the HTTP protocol, the stepped arrival
+ * profile from LoadProfile and per-level request names.
+ *
+ * Every request name carries the level its virtual user started in
+ * ("create_order L03"), so the report and LoadTestSummary can show latency
+ * per endpoint per level and find the highest level that stays inside the
+ * SLO.
+ */
+abstract class GatewaySimulation extends Simulation {
+
+    static final String API_KEY = "key_test_abc123";
+    static final String API_SECRET = "secret_test_xyz789";
+
+    private final GatewayLauncher gateway;
+    final String baseUrl;
+    private volatile long startedAt;
+
+    {
+        String external = System.getProperty("gateway.baseUrl");
+        gateway = external == null ? GatewayLauncher.start(LoadProfile.PROCESSING_DELAY_MS) : null;
+        baseUrl = external != null ? external : gateway.baseUrl();
+    }
+
+    final HttpProtocolBuilder httpProtocol = http
+            .baseUrl(baseUrl)
+            .contentTypeHeader("application/json")
+            .acceptHeader("application/json")
+            .shareConnections();
+
+    /**
+     * After load.warmupSeconds at load.startRps (excluded from the summary),
+     * arrivals start at load.startRps users/s and grow by load.stepRps for
+     * load.levels levels of load.levelSeconds each.
+     */
+    static OpenInjectionStep[] steppedArrivals() {
+        return new OpenInjectionStep[] {
+                constantUsersPerSec(LoadProfile.START_RPS)
+                        .during(Duration.ofSeconds(LoadProfile.WARMUP_SECONDS)),
+                incrementUsersPerSec(LoadProfile.STEP_RPS)
+                        .times(LoadProfile.LEVELS)
+                        .eachLevelLasting(Duration.ofSeconds(LoadProfile.LEVEL_SECONDS))
+                        .startingFrom(LoadProfile.START_RPS)
+        };
+    }
+
+    // Level of the arrival step the user started in, fixed for the whole flow
+    Session assignLevel(Session session) {
+        long elapsed = System.currentTimeMillis() - startedAt - LoadProfile.WARMUP_SECONDS * 1000L;
+        String level = elapsed < 0
+                ? "warmup"
+                : LoadTestSummary.levelName((int) Math.min(LoadProfile.LEVELS - 1,
+                        elapsed / (LoadProfile.LEVEL_SECONDS * 1000L)));
+        return session
+                .set("level", level)
+                .set("card", ThreadLocalRandom.current().nextDouble() < LoadProfile.CARD_SHARE);
+    }
+
+    static Function<Session, String> named(String request) {
+        return session -> request + " " + session.getString("level");
+    }
+
+    final ChainBuilder createOrder = exec(
+            http(named("create_order"))
+                    .post("/api/v1/orders")
+                    .header("X-Api-Key", API_KEY)
+                    .header("X-Api-Secret", API_SECRET)
+                    .body(StringBody("{\"amount\":50000,\"currency\":\"INR\",\"receipt\":\"load-#{level}\"}"))
+                    .check(status().is(201))
+                    .check(jsonPath("$.id").saveAs("orderId")));
+
+    // UPI or card, as drawn by assignLevel
+    static String paymentBody(Session session) {
+        return session.getBoolean("card")
+                ? "{\"order_id\":\"" + session.getString("orderId") + "\",\"method\":\"card\","
+                        + "\"card\":{\"number\":\"4111111111111111\",\"expiry_month\":\"12\","
+                        + "\"expiry_year\":\"2030\",\"cvv\":\"123\",\"holder_name\":\"Load Test\"}}"
+                : "{\"order_id\":\"" + session.getString("orderId") + "\",\"method\":\"upi\","
+                        + "\"vpa\":\"load@okbank\"}";
+    }
+
+    abstract String describe();
+
+    @Override
+    public void before() {
+        startedAt = System.currentTimeMillis();
+        System.out.printf("Load test against %s: %d levels of %ds, %.0f -> %.0f %s/s, "
+                        + "processing delay %dms%n",
+                baseUrl, LoadProfile.LEVELS, LoadProfile.LEVEL_SECONDS,
+                LoadProfile.checkoutsPerSecond(0), LoadProfile.checkoutsPerSecond(LoadProfile.LEVELS - 1),
+                describe(), LoadProfile.PROCESSING_DELAY_MS);
+    }
+
+    @Override
+    public void after() {
+        if (gateway != null) {
+            gateway.stop();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.payment.gateway.load;
+
+/**
+ * Load test parameters, read from system properties so the simulation and
+ * LoadTestSummary (separate JVMs) agree on them.
+ */
+final class LoadProfile {
+
+    static final double START_RPS = doubleProperty("load.startRps", 20);
+    static final double STEP_RPS = doubleProperty("load.stepRps", 20);
+    static final int LEVELS = Integer.getInteger("load.levels", 8);
+    static final int LEVEL_SECONDS = Integer.getInteger("load.levelSeconds", 30);
+    static final int WARMUP_SECONDS = Integer.getInteger("load.warmupSeconds", 20);
+
+    static final long PROCESSING_DELAY_MS = Long.getLong("load.processingDelayMs", 1000);
+    static final double CARD_SHARE = doubleProperty("load.cardShare", 0.3);
+    static final int MAX_POLLS = Integer.getInteger("load.maxPolls", 20);
+    static final long POLL_INTERVAL_MS = Long.getLong("load.pollIntervalMs", 500);
+
+    // ContentionSimulation: simultaneous payments submitted per order
+    static final int CONTENDERS = Integer.getInteger("load.contenders", 4);
+
+    // A level is sustainable while every endpoint stays inside these
+    static final long SLO_P99_MS = Long.getLong("load.sloP99Ms", 500);
+    static final double MAX_ERROR_PERCENT = doubleProperty("load.maxErrorPercent", 1.0);
+
+    private LoadProfile() {
+    }
+
+    static double checkoutsPerSecond(int level) {
+        return START_RPS + STEP_RPS * level;
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+}
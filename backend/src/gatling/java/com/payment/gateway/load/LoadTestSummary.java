@@ -0,0 +1,151 @@
+package com.payment.gateway.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Reads the stats of the latest Gatling run and reports, per endpoint and
+ * arrival level, request rate, p50/p99 latency and error rate, plus the
+ * max sustainable rate: the highest level reached before p99 exceeds
+ * load.sloP99Ms or errors exceed load.maxErrorPercent.
+ *
+ * Usage: LoadTestSummary <gatling results dir> <summary json file>
+ */
+public final class LoadTestSummary {
+
+    private LoadTestSummary() {
+    }
+
+    static String levelName(int level) {
+        return String.format("L%02d", level);
+    }
+
+    private record LevelStats(int level, long ok, long ko, long p50, long p99) {
+
+        double rps() {
+            return (ok + ko) / (double) LoadProfile.LEVEL_SECONDS;
+        }
+
+        double errorPercent() {
+            return ok + ko == 0 ? 0 : 100.0 * ko / (ok + ko);
+        }
+
+        boolean withinSlo() {
+            return p99 <= LoadProfile.SLO_P99_MS && errorPercent() <= LoadProfile.MAX_ERROR_PERCENT;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path resultsDir = Path.of(args[0]);
+        Path summaryFile = Path.of(args[1]);
+
+        Path stats = latestStats(resultsDir);
+        if (stats == null) {
+            System.out.println("No Gatling results found under " + resultsDir);
+            return;
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, Map<Integer, LevelStats>> endpoints = new TreeMap<>();
+        collect(mapper.readTree(stats.toFile()), endpoints);
+
+        ObjectNode summary = mapper.createObjectNode();
+        summary.put("report", stats.getParent().getParent().toString());
+        summary.put("sloP99Ms", LoadProfile.SLO_P99_MS);
+        summary.put("maxErrorPercent", LoadProfile.MAX_ERROR_PERCENT);
+        ObjectNode byEndpoint = summary.putObject("endpoints");
+
+        System.out.printf("%n%-16s %-5s %10s %10s %8s %8s %7s%n",
+                "endpoint", "level", "checkout/s", "req/s", "p50 ms", "p99 ms", "KO %");
+        for (Map.Entry<String, Map<Integer, LevelStats>> endpoint : endpoints.entrySet()) {
+            ObjectNode node = byEndpoint.putObject(endpoint.getKey());
+            ArrayNode levels = node.putArray("levels");
+            double maxSustainable = 0;
+            boolean sustained = true;
+
+            for (LevelStats level : endpoint.getValue().values()) {
+                ObjectNode l = levels.addObject();
+                l.put("level", level.level());
+                l.put("checkoutsPerSecond", LoadProfile.checkoutsPerSecond(level.level()));
+                l.put("requestsPerSecond", round(level.rps()));
+                l.put("p50Ms", level.p50());
+                l.put("p99Ms", level.p99());
+                l.put("errorPercent", round(level.errorPercent()));
+
+                sustained = sustained && level.withinSlo();
+                if (sustained) {
+                    maxSustainable = level.rps();
+                }
+
+                System.out.printf("%-16s %-5s %10.0f %10.1f %8d %8d %7.2f%s%n",
+                        endpoint.getKey(), levelName(level.level()),
+                        LoadProfile.checkoutsPerSecond(level.level()), level.rps(),
+                        level.p50(), level.p99(), level.errorPercent(),
+                        level.withinSlo() ? "" : "  (outside SLO)");
+            }
+
+            node.put("maxSustainableRps", round(maxSustainable));
+        }
+
+        System.out.printf("%nMax sustainable req/s per endpoint (p99 <= %d ms, KO <= %.1f%%):%n",
+                LoadProfile.SLO_P99_MS, LoadProfile.MAX_ERROR_PERCENT);
+        byEndpoint.fields().forEachRemaining(e ->
+                System.out.printf("  %-16s %8.1f%n", e.getKey(), e.getValue().get("maxSustainableRps").asDouble()));
+
+        mapper.writerWithDefaultPrettyPrinter().writeValue(summaryFile.toFile(), summary);
+        System.out.println("Summary written to " + summaryFile);
+    }
+
+    // Request entries are named "<endpoint> L<level>"
+    private static void collect(JsonNode node, Map<String, Map<Integer, LevelStats>> endpoints) {
+        if ("REQUEST".equals(node.path("type").asText())) {
+            String name = node.path("name").asText();
+            int sep = name.lastIndexOf(" L");
+            if (sep > 0) {
+                JsonNode s = node.path("stats");
+                int level = Integer.parseInt(name.substring(sep + 2));
+                endpoints.computeIfAbsent(name.substring(0, sep), k -> new TreeMap<>())
+                        .put(level, new LevelStats(level,
+                                s.path("numberOfRequests").path("ok").asLong(),
+                                s.path("numberOfRequests").path("ko").asLong(),
+                                s.path("percentiles1").path("total").asLong(),
+                                s.path("percentiles4").path("total").asLong()));
+            }
+        }
+        JsonNode contents = node.path("contents");
+        for (Iterator<JsonNode> it = contents.elements(); it.hasNext(); ) {
+            collect(it.next(), endpoints);
+        }
+    }
+
+    private static Path latestStats(Path resultsDir) throws IOException {
+        if (!Files.isDirectory(resultsDir)) {
+            return null;
+        }
+        try (Stream<Path> runs = Files.list(resultsDir)) {
+            return runs.map(run -> run.resolve("js").resolve("stats.json"))
+                    .filter(Files::isRegularFile)
+                    // Run directories are named <simulation>-<timestamp>
+                    .max(Comparator.comparing(p -> {
+                        String run = p.getParent().getParent().getFileName().toString();
+                        return run.substring(run.lastIndexOf('-') + 1);
+                    }))
+                    .orElse(null);
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
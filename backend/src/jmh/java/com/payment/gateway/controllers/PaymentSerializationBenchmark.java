@@ -0,0 +1,148 @@
+package com.payment.gateway.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.payment.gateway.models.Payment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a payment request and writing one payment: the untyped Map path
+ * the controllers used before (a LinkedHashMap per request, a HashMap per
+ * response serialized by ObjectMapper) against PaymentRequest and
+ * PaymentResponse, and against PaymentJsonWriter on a reused generator
+ * (listing and export). Run with the gc profiler to compare allocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentSerializationBenchmark {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() { };
+
+    @Param({"upi", "card"})
+    public String method;
+
+    // Same unknown-property handling as the Spring Boot ObjectMapper
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+
+    private Payment payment;
+    private byte[] requestBody;
+
+    @Setup
+    public void setUp() {
+        payment = new Payment();
+        payment.setId("pay_14jozems000017y1");
+        payment.setOrderId("order_14jozeke000027ut");
+        payment.setMerchantId("550e8400-e29b-41d4-a716-446655440000");
+        payment.setAmount(50000);
+        payment.setCurrency("INR");
+        payment.setMethod(method);
+        payment.setStatus("success");
+        payment.setCreatedAt(Instant.parse("2026-10-18T13:15:13.492368Z"));
+        payment.setUpdatedAt(Instant.parse("2026-10-18T13:15:13.707763Z"));
+        if ("upi".equals(method)) {
+            payment.setVpa("customer@okbank");
+        } else {
+            payment.setCardNetwork("visa");
+            payment.setCardLast4("1111");
+        }
+
+        String json = "upi".equals(method)
+                ? "{\"order_id\":\"order_14jozeke000027ut\",\"method\":\"upi\",\"vpa\":\"customer@okbank\"}"
+                : "{\"order_id\":\"order_14jozeke000027ut\",\"method\":\"card\",\"card\":{"
+                        + "\"number\":\"4111111111111111\",\"expiry_month\":\"12\",\"expiry_year\":\"2030\","
+                        + "\"cvv\":\"123\",\"holder_name\":\"Test User\"}}";
+        requestBody = json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // ---------------- REQUEST ----------------
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Object readMapRequest() throws IOException {
+        Map<String, Object> request = objectMapper.readValue(requestBody, MAP_TYPE);
+        Map<String, String> card = (Map<String, String>) request.get("card");
+        return card == null ? request.get("vpa") : card.get("number");
+    }
+
+    @Benchmark
+    public Object readPaymentRequest() throws IOException {
+        PaymentRequest request = objectMapper.readValue(requestBody, PaymentRequest.class);
+        return request.card() == null ? request.vpa() : request.card().number();
+    }
+
+    // ---------------- RESPONSE ----------------
+
+    @Benchmark
+    public byte[] mapResponse() throws IOException {
+        return objectMapper.writeValueAsBytes(mapResponse(payment));
+    }
+
+    @Benchmark
+    public byte[] paymentResponse() throws IOException {
+        return objectMapper.writeValueAsBytes(new PaymentResponse(payment));
+    }
+
+    @Benchmark
+    public int paymentJsonWriter() throws IOException {
+        buffer.reset();
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(buffer)) {
+            PaymentJsonWriter.write(gen, payment);
+        }
+        return buffer.size();
+    }
+
+    // The buildPaymentResponse the controller used before PaymentResponse
+    private static Map<String, Object> mapResponse(Payment p) {
+        Map<String, Object> res = new HashMap<>();
+        res.put("id", p.getId());
+        res.put("order_id", p.getOrderId());
+        res.put("amount", p.getAmount());
+        res.put("currency", p.getCurrency());
+        res.put("method", p.getMethod());
+        res.put("status", p.getStatus());
+        res.put("created_at", p.getCreatedAt().toString());
+        res.put("updated_at", p.getUpdatedAt().toString());
+
+        if ("upi".equals(p.getMethod())) res.put("vpa", p.getVpa());
+        if ("card".equals(p.getMethod())) {
+            res.put("card_network", p.getCardNetwork());
+            res.put("card_last4", p.getCardLast4());
+        }
+
+        if ("failed".equals(p.getStatus())) {
+            res.put("error_code", p.getErrorCode());
+            res.put("error_description", p.getErrorDescription());
+        }
+
+        return res;
+    }
+}
@@ -0,0 +1,100 @@
+package com.payment.gateway.services;
+
+import com.payment.gateway.models.Merchant;
+import com.payment.gateway.repositories.MerchantRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AuthenticationService over a stubbed MerchantRepository (no database).
+ *
+ * authenticate measures the steady state (cached merchant, remembered
+ * secret); coldSecret forces the PBKDF2 verification every call, which is
+ * the cost of the first request per key/secret per window; unknownKey is
+ * a rejected key served from the negative cache. plaintextEquals is the
+ * String.equals check used before secrets were hashed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthenticationBenchmark {
+
+    private static final String API_KEY = "key_test_abc123";
+    private static final String API_SECRET = "secret_test_xyz789";
+
+    private AuthenticationService authService;
+    private CredentialVerifier credentialVerifier;
+    private Merchant merchant;
+
+    @Setup
+    public void setUp() {
+        SecretHasher hasher = new SecretHasher(210_000);
+
+        merchant = new Merchant();
+        merchant.setId(UUID.randomUUID());
+        merchant.setApiKey(API_KEY);
+        merchant.setApiSecretHash(hasher.hash(API_SECRET));
+        merchant.setIsActive(true);
+
+        MerchantRepository repository = (MerchantRepository) Proxy.newProxyInstance(
+                MerchantRepository.class.getClassLoader(),
+                new Class<?>[]{MerchantRepository.class},
+                (proxy, method, args) -> {
+                    if ("findByApiKey".equals(method.getName())) {
+                        return API_KEY.equals(args[0]) ? Optional.of(merchant) : Optional.empty();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        credentialVerifier = new CredentialVerifier(hasher, 10_000, 60, 100_000, 10);
+        authService = new AuthenticationService(
+                repository,
+                new MerchantCredentialCache(10_000, 300, 100_000, 30),
+                credentialVerifier,
+                new PaymentMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    public Merchant authenticate() {
+        return authService.authenticate(API_KEY, API_SECRET);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Merchant coldSecret() {
+        credentialVerifier.invalidate(API_KEY);
+        return authService.authenticate(API_KEY, API_SECRET);
+    }
+
+    @Benchmark
+    public boolean unknownKey() {
+        try {
+            authService.authenticate("key_unknown", API_SECRET);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public boolean plaintextEquals() {
+        return API_SECRET.equals(new String(API_SECRET.toCharArray()));
+    }
+}
@@ -0,0 +1,66 @@
+package com.payment.gateway.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order/payment id generation: TimeOrderedIdGenerator against the shared
+ * java.util.Random generator OrderService and PaymentService used before,
+ * single-threaded and with all request threads contending.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdGeneratorBenchmark {
+
+    private static final String CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+    private final TimeOrderedIdGenerator timeOrdered = new TimeOrderedIdGenerator(1);
+    private final Random sharedRandom = new Random();
+
+    private String sharedRandomId(String prefix) {
+        StringBuilder sb = new StringBuilder(prefix);
+        for (int i = 0; i < 16; i++) {
+            sb.append(CHARS.charAt(sharedRandom.nextInt(CHARS.length())));
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String timeOrdered() {
+        return timeOrdered.nextId("pay_");
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String sharedRandom() {
+        return sharedRandomId("pay_");
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String timeOrderedContended() {
+        return timeOrdered.nextId("pay_");
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String sharedRandomContended() {
+        return sharedRandomId("pay_");
+    }
+}
@@ -0,0 +1,88 @@
+package com.payment.gateway.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ValidationService against the regex implementation it replaced, on valid
+ * and invalid input for every check the payment endpoints run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    @Param({"valid", "invalid"})
+    public String input;
+
+    private final ValidationService current = new ValidationService();
+    private final RegexValidationService regex = new RegexValidationService();
+
+    private String vpa;
+    private String cardNumber;
+    private String month;
+    private String year;
+
+    @Setup
+    public void setUp() {
+        boolean valid = "valid".equals(input);
+        vpa = valid ? "customer.name_01@okbank" : "customer name@ok-bank";
+        cardNumber = valid ? "4111 1111 1111 1111" : "4111 1111 1111 1112";
+        month = valid ? "12" : "13";
+        year = valid ? "2030" : "2019";
+    }
+
+    @Benchmark
+    public boolean vpa() {
+        return current.isValidVpa(vpa);
+    }
+
+    @Benchmark
+    public boolean vpaRegex() {
+        return regex.isValidVpa(vpa);
+    }
+
+    @Benchmark
+    public boolean luhn() {
+        return current.isValidCardNumber(cardNumber);
+    }
+
+    @Benchmark
+    public boolean luhnRegex() {
+        return regex.isValidCardNumber(cardNumber);
+    }
+
+    @Benchmark
+    public String network() {
+        return current.detectCardNetwork(cardNumber);
+    }
+
+    @Benchmark
+    public String networkRegex() {
+        return regex.detectCardNetwork(cardNumber);
+    }
+
+    @Benchmark
+    public boolean expiry() {
+        return current.isValidExpiry(month, year);
+    }
+
+    @Benchmark
+    public boolean expiryRegex() {
+        return regex.isValidExpiry(month, year);
+    }
+}
@@ -0,0 +1,71 @@
+package com.payment.gateway.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Executors for async MVC requests, which write streamed responses such as
+ * the payment listing.
+ *
+ * Boot's default executor has 8 threads and an unbounded queue. Here the
+ * thread count and the queue are sized explicitly, so slow clients
+ * cannot pile up requests without limit. A request that finds the executor
+ * full gets 503. With VIRTUAL_THREADS the pool runs virtual threads and
+ * keeps the same bounds.
+ *
+ * Exports run for minutes on a connection from their own pool, so they also
+ * get their own executor with one thread per export connection
+ * (EXPORT_MAX_CONCURRENT). PaymentService hands out the same number of
+ * permits before an export is submitted, so the queue only covers the
+ * moment between a finished export releasing its permit and its thread
+ * going back to the pool.
+ */
+@Configuration
+public class AsyncRequestConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor mvcAsyncExecutor(
+            @Value("${MVC_ASYNC_THREADS:16}") int threads,
+            @Value("${MVC_ASYNC_QUEUE_CAPACITY:100}") int queueCapacity,
+            @Value("${VIRTUAL_THREADS:false}") boolean virtualThreads
+    ) {
+        return boundedExecutor("mvc-async-", threads, queueCapacity, virtualThreads);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor exportExecutor(
+            @Value("${EXPORT_MAX_CONCURRENT:4}") int maxConcurrent,
+            @Value("${VIRTUAL_THREADS:false}") boolean virtualThreads
+    ) {
+        return boundedExecutor("export-", maxConcurrent, maxConcurrent, virtualThreads);
+    }
+
+    @Bean
+    public WebMvcConfigurer asyncSupportConfigurer(
+            @Qualifier("mvcAsyncExecutor") ThreadPoolTaskExecutor mvcAsyncExecutor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(mvcAsyncExecutor);
+            }
+        };
+    }
+
+    static ThreadPoolTaskExecutor boundedExecutor(String prefix, int threads, int queueCapacity,
+                                                  boolean virtualThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(prefix);
+        if (virtualThreads) {
+            executor.setThreadFactory(Thread.ofVirtual().name(prefix, 1).factory());
+        }
+        return executor;
+    }
+}
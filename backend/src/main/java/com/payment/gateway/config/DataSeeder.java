@@ -2,6 +2,7 @@ package com.payment.gateway.config;
 
 import com.payment.gateway.models.Merchant;
 import com.payment.gateway.repositories.MerchantRepository;
+import com.payment.gateway.services.SecretHasher;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,7 +13,7 @@ import java.util.UUID;
 public class DataSeeder {
 
     @Bean
-    CommandLineRunner seedMerchant(MerchantRepository repository) {
+    CommandLineRunner seedMerchant(MerchantRepository repository, SecretHasher secretHasher) {
         return args -> {
             repository.findByEmail("test@example.com").ifPresentOrElse(
                 merchant -> {
@@ -24,7 +25,8 @@ public class DataSeeder {
                     merchant.setName("Test Merchant");
                     merchant.setEmail("test@example.com");
                     merchant.setApiKey("key_test_abc123");
-                    merchant.setApiSecret("secret_test_xyz789");
+                    merchant.setApiSecretHash(secretHasher.hash("secret_test_xyz789"));
+                    merchant.setWebhookSecret("whsec_test_abc123");
                     repository.save(merchant);
                 }
             );
@@ -0,0 +1,60 @@
+package com.payment.gateway.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Two HikariCP pools on the same database.
+ *
+ * The primary pool serves every short transaction and is configured from
+ * spring.datasource.hikari.*, as Boot's auto-configuration would (declaring
+ * a second DataSource makes that back off, so it is declared here).
+ *
+ * Payment exports stream through a server-side cursor and hold their
+ * connection for the whole download, up to EXPORT_TIMEOUT_MS. They get a
+ * small pool of their own, so they cannot drain the primary pool and its
+ * leak detection stays tight. The export pool's leak threshold sits just
+ * above the export timeout; its size matches EXPORT_MAX_CONCURRENT, which
+ * PaymentService enforces before a connection is borrowed and which also
+ * sizes the export executor in AsyncRequestConfig.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    public static final String EXPORT_POOL_NAME = "payment-gateway-export";
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public HikariDataSource exportDataSource(
+            DataSourceProperties properties,
+            @Value("${EXPORT_MAX_CONCURRENT:4}") int maxConcurrent,
+            @Value("${EXPORT_DB_CONNECTION_TIMEOUT_MS:3000}") long connectionTimeoutMs,
+            @Value("${EXPORT_DB_LEAK_DETECTION_MS:3660000}") long leakDetectionMs,
+            @Value("${EXPORT_DB_MAX_LIFETIME_MS:7200000}") long maxLifetimeMs
+    ) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class).build();
+        dataSource.setPoolName(EXPORT_POOL_NAME);
+        dataSource.setMaximumPoolSize(maxConcurrent);
+        // Exports are occasional; do not keep connections open between them
+        dataSource.setMinimumIdle(0);
+        dataSource.setIdleTimeout(60_000);
+        dataSource.setConnectionTimeout(connectionTimeoutMs);
+        // Hikari ignores a leak threshold that is not below the max lifetime
+        dataSource.setMaxLifetime(maxLifetimeMs);
+        dataSource.setLeakDetectionThreshold(leakDetectionMs);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+}
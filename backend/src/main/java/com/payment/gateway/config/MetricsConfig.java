@@ -0,0 +1,129 @@
+package com.payment.gateway.config;
+
+import com.payment.gateway.services.CredentialVerifier;
+import com.payment.gateway.services.GuardedPaymentProcessor;
+import com.payment.gateway.services.IdempotencyService;
+import com.payment.gateway.services.MerchantCredentialCache;
+import com.payment.gateway.services.OrderSnapshotCache;
+import com.payment.gateway.services.PaymentProcessingEngine;
+import com.payment.gateway.services.PaymentProcessorRouter;
+import com.payment.gateway.services.ProcessorBulkhead;
+import com.payment.gateway.services.ProcessorCircuitBreaker;
+import com.payment.gateway.services.WebhookDispatcher;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binds the in-process caches, the processing engine, the processor guards
+ * and the webhook dispatcher to the meter registry. All meters here read existing counters
+ * at scrape time, so they add nothing to the request path.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder cacheMetrics(MerchantCredentialCache merchantCache,
+                                    CredentialVerifier credentialVerifier,
+                                    OrderSnapshotCache orderCache,
+                                    IdempotencyService idempotencyService) {
+        return registry -> {
+            CaffeineCacheMetrics.monitor(registry, merchantCache.getMerchantCache(), "merchant_credentials");
+            CaffeineCacheMetrics.monitor(registry, merchantCache.getUnknownKeyCache(), "merchant_unknown_keys");
+            CaffeineCacheMetrics.monitor(registry, credentialVerifier.getVerifiedCache(), "verified_secrets");
+            CaffeineCacheMetrics.monitor(registry, credentialVerifier.getRejectedCache(), "rejected_secrets");
+            CaffeineCacheMetrics.monitor(registry, orderCache.getCache(), "order_snapshots");
+            CaffeineCacheMetrics.monitor(registry, idempotencyService.getRecentCache(), "idempotency_keys");
+        };
+    }
+
+    @Bean
+    public MeterBinder processingEngineMetrics(PaymentProcessingEngine engine) {
+        return registry -> {
+            Gauge.builder("processing.engine.active", engine, PaymentProcessingEngine::getActiveCount)
+                    .description("Payments currently being processed")
+                    .register(registry);
+            Gauge.builder("processing.engine.queued", engine, PaymentProcessingEngine::getQueueDepth)
+                    .description("Payments waiting for a worker")
+                    .register(registry);
+            Gauge.builder("processing.engine.available_slots", engine, PaymentProcessingEngine::getAvailableSlots)
+                    .description("Free admission slots (workers + queue capacity)")
+                    .register(registry);
+
+            FunctionCounter.builder("processing.engine.tasks", engine, PaymentProcessingEngine::getCompletedCount)
+                    .tag("result", "completed").register(registry);
+            FunctionCounter.builder("processing.engine.tasks", engine, PaymentProcessingEngine::getFailedCount)
+                    .tag("result", "failed").register(registry);
+            FunctionCounter.builder("processing.engine.tasks", engine, PaymentProcessingEngine::getRejectedCount)
+                    .tag("result", "rejected").register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder paymentProcessorMetrics(PaymentProcessorRouter router) {
+        return registry -> {
+            for (ProcessorBulkhead bulkhead : router.getBulkheads()) {
+                String method = bulkhead.getMethod();
+                Gauge.builder("processor.bulkhead.running", bulkhead, ProcessorBulkhead::getRunning)
+                        .description("Processor calls running for the method")
+                        .tag("method", method).register(registry);
+                Gauge.builder("processor.bulkhead.queued", bulkhead, ProcessorBulkhead::getQueued)
+                        .description("Processor calls waiting for the method's bulkhead")
+                        .tag("method", method).register(registry);
+                Gauge.builder("processor.bulkhead.limit", bulkhead, ProcessorBulkhead::getMaxConcurrent)
+                        .tag("method", method).register(registry);
+                FunctionCounter.builder("processor.bulkhead.rejected", bulkhead, ProcessorBulkhead::getRejectedCount)
+                        .description("Payments refused because the method's bulkhead was full")
+                        .tag("method", method).register(registry);
+            }
+
+            for (ProcessorCircuitBreaker breaker : router.getCircuitBreakers()) {
+                String processor = breaker.getProcessor();
+                Gauge.builder("processor.circuit.state", breaker, b -> b.getState().ordinal())
+                        .description("0 closed, 1 open, 2 half open")
+                        .tag("processor", processor).register(registry);
+                Gauge.builder("processor.circuit.failure_rate", breaker, ProcessorCircuitBreaker::getFailureRate)
+                        .tag("processor", processor).register(registry);
+                FunctionCounter.builder("processor.circuit.opened", breaker, ProcessorCircuitBreaker::getOpenedCount)
+                        .tag("processor", processor).register(registry);
+                FunctionCounter.builder("processor.circuit.not_permitted", breaker,
+                                ProcessorCircuitBreaker::getNotPermittedCount)
+                        .description("Payments refused while the circuit was open")
+                        .tag("processor", processor).register(registry);
+            }
+
+            for (GuardedPaymentProcessor processor : router.getProcessors()) {
+                String method = processor.getBulkhead().getMethod();
+                FunctionCounter.builder("processor.calls", processor, GuardedPaymentProcessor::getApprovedCount)
+                        .tag("processor", processor.name()).tag("method", method).tag("outcome", "approved")
+                        .register(registry);
+                FunctionCounter.builder("processor.calls", processor, GuardedPaymentProcessor::getDeclinedCount)
+                        .tag("processor", processor.name()).tag("method", method).tag("outcome", "declined")
+                        .register(registry);
+                FunctionCounter.builder("processor.calls", processor, GuardedPaymentProcessor::getErrorCount)
+                        .tag("processor", processor.name()).tag("method", method).tag("outcome", "error")
+                        .register(registry);
+                FunctionCounter.builder("processor.calls", processor, GuardedPaymentProcessor::getTimeoutCount)
+                        .tag("processor", processor.name()).tag("method", method).tag("outcome", "timeout")
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder webhookMetrics(WebhookDispatcher dispatcher) {
+        return registry -> {
+            FunctionCounter.builder("webhooks.deliveries", dispatcher, WebhookDispatcher::getDeliveredCount)
+                    .tag("result", "delivered").register(registry);
+            FunctionCounter.builder("webhooks.deliveries", dispatcher, WebhookDispatcher::getRetriedCount)
+                    .tag("result", "retried").register(registry);
+            FunctionCounter.builder("webhooks.deliveries", dispatcher, WebhookDispatcher::getFailedCount)
+                    .tag("result", "failed").register(registry);
+            FunctionCounter.builder("webhooks.deliveries", dispatcher, WebhookDispatcher::getSkippedCount)
+                    .tag("result", "skipped").register(registry);
+        };
+    }
+}
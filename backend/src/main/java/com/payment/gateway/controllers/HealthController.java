@@ -1,22 +1,28 @@
 package com.payment.gateway.controllers;
 
+import com.payment.gateway.services.ReadinessProbe;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import javax.sql.DataSource;
-import java.sql.Connection;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Health endpoints. None of them touch the connection pool; database and
+ * saturation state come from the cached {@link ReadinessProbe} snapshot.
+ */
 @RestController
 public class HealthController {
 
-    private final DataSource dataSource;
+    private static final Map<String, String> LIVE = Map.of("status", "alive");
 
-    public HealthController(DataSource dataSource) {
-        this.dataSource = dataSource;
+    private final ReadinessProbe readinessProbe;
+
+    public HealthController(ReadinessProbe readinessProbe) {
+        this.readinessProbe = readinessProbe;
     }
 
     @GetMapping("/health")
@@ -24,13 +30,22 @@ public class HealthController {
         Map<String, String> response = new HashMap<>();
         response.put("status", "healthy");
         response.put("timestamp", Instant.now().toString());
-
-        try (Connection connection = dataSource.getConnection()) {
-            response.put("database", "connected");
-        } catch (Exception e) {
-            response.put("database", "disconnected");
-        }
+        response.put("database", readinessProbe.current().databaseUp() ? "connected" : "disconnected");
 
         return ResponseEntity.ok(response);
     }
+
+    // Process is up and serving requests; never depends on the database
+    @GetMapping("/health/live")
+    public ResponseEntity<Map<String, String>> live() {
+        return ResponseEntity.ok(LIVE);
+    }
+
+    @GetMapping("/health/ready")
+    public ResponseEntity<Map<String, Object>> ready() {
+        ReadinessProbe.Snapshot snapshot = readinessProbe.current();
+        return ResponseEntity
+                .status(snapshot.ready() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(snapshot.body());
+    }
 }
@@ -0,0 +1,12 @@
+package com.payment.gateway.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+
+/**
+ * Body of POST /api/v1/orders/batch. Items stay untyped until the
+ * controller converts them one by one, so an item with a field of the wrong
+ * type fails alone instead of rejecting the whole batch.
+ */
+public record OrderBatchRequest(List<JsonNode> orders) { }
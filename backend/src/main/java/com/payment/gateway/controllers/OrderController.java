@@ -1,25 +1,49 @@
 package com.payment.gateway.controllers;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.payment.gateway.models.Merchant;
 import com.payment.gateway.models.Order;
+import com.payment.gateway.models.OrderSnapshot;
 import com.payment.gateway.services.AuthenticationService;
+import com.payment.gateway.services.IdempotencyService;
 import com.payment.gateway.services.OrderService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.*;
 
-// import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/orders")
 public class OrderController {
 
+    // Column sizes of orders.currency and orders.receipt
+    private static final int MAX_CURRENCY_LENGTH = 3;
+    private static final int MAX_RECEIPT_LENGTH = 255;
+
     private final AuthenticationService authService;
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchSize;
 
-    public OrderController(AuthenticationService authService, OrderService orderService) {
+    public OrderController(AuthenticationService authService,
+                           OrderService orderService,
+                           IdempotencyService idempotencyService,
+                           ObjectMapper objectMapper,
+                           @Value("${ORDER_BATCH_MAX_SIZE:1000}") int maxBatchSize) {
         this.authService = authService;
         this.orderService = orderService;
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.maxBatchSize = maxBatchSize;
     }
 
     // =========================================================
@@ -27,14 +51,9 @@ public class OrderController {
     // =========================================================
    @GetMapping("/{orderId}/public")
 public ResponseEntity<?> getOrderPublic(@PathVariable String orderId) {
-    Order order = orderService.getOrderPublic(orderId);
-
-    return ResponseEntity.ok(Map.of(
-            "id", order.getId(),
-            "amount", order.getAmount(),
-            "currency", order.getCurrency(),
-            "status", order.getStatus()
-    ));
+    OrderSnapshot order = orderService.getOrderPublic(orderId);
+
+    return ResponseEntity.ok(new PublicOrderResponse(order));
 }
 
 
@@ -45,7 +64,8 @@ public ResponseEntity<?> getOrderPublic(@PathVariable String orderId) {
     public ResponseEntity<?> createOrder(
             @RequestHeader("X-Api-Key") String apiKey,
             @RequestHeader("X-Api-Secret") String apiSecret,
-            @RequestBody Map<String, Object> request
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody OrderRequest request
     ) {
         Merchant merchant;
         try {
@@ -57,41 +77,115 @@ public ResponseEntity<?> getOrderPublic(@PathVariable String orderId) {
             ));
         }
 
-        Object amountObj = request.get("amount");
-        if (!(amountObj instanceof Number) || ((Number) amountObj).intValue() < 100) {
+        return idempotencyService.execute(merchant.getId() + ":orders", idempotencyKey, request,
+                () -> doCreateOrder(merchant, request));
+    }
+
+    private ResponseEntity<?> doCreateOrder(Merchant merchant, OrderRequest request) {
+        OrderInput input;
+        try {
+            input = parseOrderRequest(request);
+        } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(error(
                     "BAD_REQUEST_ERROR",
-                    "amount must be at least 100"
+                    e.getMessage()
             ));
         }
 
-        int amount = ((Number) amountObj).intValue();
-        String currency = (String) request.getOrDefault("currency", "INR");
-        String receipt = (String) request.get("receipt");
-        String notes = request.containsKey("notes")
-                ? request.get("notes").toString()
-                : null;
-
         Order order = orderService.createOrder(
                 merchant,
-                amount,
-                currency,
-                receipt,
-                notes
+                input.draft().amount(),
+                input.draft().currency(),
+                input.draft().receipt(),
+                input.draft().notes()
         );
 
-        Map<String, Object> response = new java.util.HashMap<>();
-        response.put("id", order.getId());
-        response.put("merchant_id", order.getMerchantId());
-        response.put("amount", order.getAmount());
-        response.put("currency", order.getCurrency());
-        response.put("receipt", order.getReceipt());
-        response.put("notes", notes == null ? Map.of() : request.get("notes"));
-        response.put("status", order.getStatus());
-        response.put("created_at", order.getCreatedAt().toString());
+        return ResponseEntity.status(201).body(OrderResponse.created(order, input.rawNotes()));
+
+    }
+
+    // =========================================================
+    // BATCH CREATE ORDERS (AUTH)
+    // =========================================================
+    @PostMapping("/batch")
+    public ResponseEntity<?> createOrders(
+            @RequestHeader("X-Api-Key") String apiKey,
+            @RequestHeader("X-Api-Secret") String apiSecret,
+            @RequestBody OrderBatchRequest request
+    ) {
+        Merchant merchant;
+        try {
+            merchant = authService.authenticate(apiKey, apiSecret);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(401).body(error(
+                    "AUTHENTICATION_ERROR",
+                    "Invalid API credentials"
+            ));
+        }
+
+        List<JsonNode> items = request.orders();
+        if (items == null || items.isEmpty()) {
+            return ResponseEntity.badRequest().body(error(
+                    "BAD_REQUEST_ERROR",
+                    "orders must be a non-empty array"
+            ));
+        }
+
+        if (items.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body(error(
+                    "BAD_REQUEST_ERROR",
+                    "at most " + maxBatchSize + " orders per batch"
+            ));
+        }
+
+        // Validate every item first; invalid ones stay null and are skipped
+        List<OrderInput> inputs = new ArrayList<>(items.size());
+        List<OrderService.OrderDraft> drafts = new ArrayList<>(items.size());
+        List<String> validationErrors = new ArrayList<>(items.size());
+
+        for (JsonNode item : items) {
+            OrderInput input = null;
+            String validationError = null;
+            try {
+                input = parseOrderRequest(toOrderRequest(item));
+            } catch (IllegalArgumentException e) {
+                validationError = e.getMessage();
+            }
+            inputs.add(input);
+            drafts.add(input == null ? null : input.draft());
+            validationErrors.add(validationError);
+        }
+
+        List<Order> created = orderService.createOrders(merchant, drafts);
+
+        List<Map<String, Object>> results = new ArrayList<>(items.size());
+        int createdCount = 0;
+
+        for (int i = 0; i < items.size(); i++) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("index", i);
 
-        return ResponseEntity.status(201).body(response);
+            if (validationErrors.get(i) != null) {
+                result.put("status", 400);
+                result.putAll(error("BAD_REQUEST_ERROR", validationErrors.get(i)));
+            } else if (created.get(i) == null) {
+                result.put("status", 500);
+                result.putAll(error("INTERNAL_ERROR", "Order could not be saved"));
+            } else {
+                result.put("status", 201);
+                result.put("order", OrderResponse.created(created.get(i), inputs.get(i).rawNotes()));
+                createdCount++;
+            }
+            results.add(result);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("count", items.size());
+        response.put("created", createdCount);
+        response.put("failed", items.size() - createdCount);
+        response.put("items", results);
 
+        return ResponseEntity.ok(response);
     }
 
     // =========================================================
@@ -113,31 +207,74 @@ public ResponseEntity<?> getOrderPublic(@PathVariable String orderId) {
             ));
         }
 
+        Order order;
         try {
-            Order order = orderService.getOrder(orderId, merchant.getId().toString());
-
-            return ResponseEntity.ok(Map.of(
-                    "id", order.getId(),
-                    "merchant_id", order.getMerchantId(),
-                    "amount", order.getAmount(),
-                    "currency", order.getCurrency(),
-                    "receipt", order.getReceipt(),
-                    "notes", order.getNotes(),
-                    "status", order.getStatus(),
-                    "created_at", order.getCreatedAt().toString(),
-                    "updated_at", order.getUpdatedAt().toString()
-            ));
+            order = orderService.getOrder(orderId, merchant.getId().toString());
         } catch (RuntimeException e) {
             return ResponseEntity.status(404).body(error(
                     "NOT_FOUND_ERROR",
                     "Order not found"
             ));
         }
+
+        return ResponseEntity.ok(OrderResponse.of(order));
+    }
+
+    // =========================================================
+    // REQUEST / RESPONSE HELPERS
+    // =========================================================
+    private record OrderInput(OrderService.OrderDraft draft, Object rawNotes) { }
+
+    // One batch item; wrong-typed fields fail this item only
+    private OrderRequest toOrderRequest(JsonNode item) {
+        if (item == null || !item.isObject()) {
+            throw new IllegalArgumentException("order must be an object");
+        }
+        try {
+            return objectMapper.treeToValue(item, OrderRequest.class);
+        } catch (JsonMappingException e) {
+            String field = e.getPath().isEmpty() ? null : e.getPath().get(0).getFieldName();
+            throw new IllegalArgumentException(field == null
+                    ? "order has a field of the wrong type"
+                    : field + " has the wrong type");
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("order has a field of the wrong type");
+        }
+    }
+
+    private OrderInput parseOrderRequest(OrderRequest request) {
+        if (request.amount() == null || request.amount() < 100) {
+            throw new IllegalArgumentException("amount must be at least 100");
+        }
+
+        String currency = request.currency() == null ? "INR" : request.currency();
+        if (currency.length() > MAX_CURRENCY_LENGTH) {
+            throw new IllegalArgumentException("currency must be at most " + MAX_CURRENCY_LENGTH + " characters");
+        }
+        if (request.receipt() != null && request.receipt().length() > MAX_RECEIPT_LENGTH) {
+            throw new IllegalArgumentException("receipt must be at most " + MAX_RECEIPT_LENGTH + " characters");
+        }
+
+        String notes = request.notes() == null ? null : request.notes().toString();
+
+        return new OrderInput(
+                new OrderService.OrderDraft(request.amount(), currency, request.receipt(), notes),
+                notes == null ? Map.of() : request.notes()
+        );
     }
 
     // =========================================================
     // ERROR HELPER
     // =========================================================
+    // Malformed JSON or a field of the wrong type in a typed request body
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Map<String, Object>> unreadableRequest(HttpMessageNotReadableException e) {
+        return ResponseEntity.badRequest().body(error(
+                "BAD_REQUEST_ERROR",
+                "request body is malformed or has a field of the wrong type"
+        ));
+    }
+
     private Map<String, Object> error(String code, String description) {
         return Map.of(
                 "error", Map.of(
@@ -0,0 +1,12 @@
+package com.payment.gateway.controllers;
+
+/**
+ * Body of POST /api/v1/orders and one item of POST /api/v1/orders/batch.
+ * Notes are free-form JSON and are echoed back as sent.
+ */
+public record OrderRequest(
+        Integer amount,
+        String currency,
+        String receipt,
+        Object notes
+) { }
@@ -0,0 +1,55 @@
+package com.payment.gateway.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.payment.gateway.models.Order;
+
+import java.io.IOException;
+
+/**
+ * Order representation for merchants, written field by field to the
+ * generator. The create responses echo the notes as sent; the read response
+ * returns the stored notes and updated_at.
+ */
+@JsonSerialize(using = OrderResponse.Serializer.class)
+public record OrderResponse(Order order, Object notes, boolean includeUpdatedAt) {
+
+    public static OrderResponse created(Order order, Object rawNotes) {
+        return new OrderResponse(order, rawNotes, false);
+    }
+
+    public static OrderResponse of(Order order) {
+        return new OrderResponse(order, order.getNotes(), true);
+    }
+
+    static final class Serializer extends StdSerializer<OrderResponse> {
+
+        private static final long serialVersionUID = 1L;
+
+        Serializer() {
+            super(OrderResponse.class);
+        }
+
+        @Override
+        public void serialize(OrderResponse value, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            Order order = value.order();
+            gen.writeStartObject();
+            gen.writeStringField("id", order.getId());
+            gen.writeStringField("merchant_id", order.getMerchantId());
+            gen.writeNumberField("amount", order.getAmount());
+            gen.writeStringField("currency", order.getCurrency());
+            gen.writeStringField("receipt", order.getReceipt());
+            gen.writeFieldName("notes");
+            provider.defaultSerializeValue(value.notes(), gen);
+            gen.writeStringField("status", order.getStatus());
+            gen.writeStringField("created_at", order.getCreatedAt().toString());
+            if (value.includeUpdatedAt()) {
+                gen.writeStringField("updated_at", order.getUpdatedAt().toString());
+            }
+            gen.writeEndObject();
+        }
+    }
+}
@@ -1,54 +1,112 @@
 package com.payment.gateway.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.payment.gateway.models.Merchant;
-import com.payment.gateway.models.Order;
+import com.payment.gateway.models.OrderSnapshot;
 import com.payment.gateway.models.Payment;
 import com.payment.gateway.repositories.OrderRepository;
-import com.payment.gateway.repositories.PaymentRepository;
+import com.payment.gateway.repositories.PaymentQueryRepository;
 import com.payment.gateway.services.AuthenticationService;
+import com.payment.gateway.services.IdempotencyService;
+import com.payment.gateway.services.OrderService;
+import com.payment.gateway.services.PaymentEventStreamer;
 import com.payment.gateway.services.PaymentService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/payments")
 public class PaymentController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int EXPORT_BUFFER_BYTES = 64 * 1024;
+
     private final AuthenticationService authService;
     private final OrderRepository orderRepository;
-    private final PaymentRepository paymentRepository;
+    private final OrderService orderService;
     private final PaymentService paymentService;
+    private final PaymentEventStreamer paymentEventStreamer;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final int maxStatusIds;
+    private final AsyncTaskExecutor exportExecutor;
+    private final long exportTimeoutMs;
 
     public PaymentController(AuthenticationService authService,
                              OrderRepository orderRepository,
-                             PaymentRepository paymentRepository,
-                             PaymentService paymentService) {
+                             OrderService orderService,
+                             PaymentService paymentService,
+                             PaymentEventStreamer paymentEventStreamer,
+                             IdempotencyService idempotencyService,
+                             ObjectMapper objectMapper,
+                             @Value("${PAYMENT_STATUS_MAX_IDS:500}") int maxStatusIds,
+                             @Qualifier("exportExecutor") AsyncTaskExecutor exportExecutor,
+                             @Value("${EXPORT_TIMEOUT_MS:3600000}") long exportTimeoutMs) {
         this.authService = authService;
         this.orderRepository = orderRepository;
-        this.paymentRepository = paymentRepository;
+        this.orderService = orderService;
         this.paymentService = paymentService;
+        this.paymentEventStreamer = paymentEventStreamer;
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.maxStatusIds = maxStatusIds;
+        this.exportExecutor = exportExecutor;
+        this.exportTimeoutMs = exportTimeoutMs;
     }
 
     // =========================================================
     // PUBLIC PAYMENT (CHECKOUT — NO AUTH HEADERS)
     // =========================================================
     @PostMapping("/public")
-    public ResponseEntity<?> createPaymentPublic(@RequestBody Map<String, Object> request) {
-
-        String orderId = (String) request.get("order_id");
-        String method = (String) request.get("method");
+    public ResponseEntity<?> createPaymentPublic(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody PaymentRequest request
+    ) {
+        return idempotencyService.execute("public:payments", idempotencyKey, request,
+                () -> doCreatePaymentPublic(request));
+    }
 
-        if (orderId == null || method == null) {
+    private ResponseEntity<?> doCreatePaymentPublic(PaymentRequest request) {
+        if (request.orderId() == null || request.method() == null) {
             return ResponseEntity.badRequest().body(error(
                     "BAD_REQUEST_ERROR",
                     "order_id and method are required"
             ));
         }
 
-        Order order = orderRepository.findById(orderId).orElse(null);
+        OrderSnapshot order = orderService.findOrderSnapshot(request.orderId()).orElse(null);
         if (order == null) {
             return ResponseEntity.status(404).body(error(
                     "NOT_FOUND_ERROR",
@@ -56,46 +114,7 @@ public class PaymentController {
             ));
         }
 
-        try {
-            Payment payment;
-
-            if ("upi".equals(method)) {
-                String vpa = (String) request.get("vpa");
-                payment = paymentService.createPayment(
-                        order, "upi", vpa, null, null, null
-                );
-            } else if ("card".equals(method)) {
-                Map<String, String> card =
-                        (Map<String, String>) request.get("card");
-
-                if (card == null) {
-                    return ResponseEntity.badRequest().body(error(
-                            "BAD_REQUEST_ERROR",
-                            "card details required"
-                    ));
-                }
-
-                payment = paymentService.createPayment(
-                        order,
-                        "card",
-                        null,
-                        card.get("number"),
-                        card.get("expiry_month"),
-                        card.get("expiry_year")
-                );
-            } else {
-                return ResponseEntity.badRequest().body(error(
-                        "BAD_REQUEST_ERROR",
-                        "invalid payment method"
-                ));
-            }
-
-            return ResponseEntity.status(201).body(buildPaymentResponse(payment));
-
-        } catch (IllegalArgumentException e) {
-            String code = e.getMessage();
-            return ResponseEntity.badRequest().body(error(code, errorMessage(code)));
-        }
+        return charge(order, request);
     }
     
 
@@ -106,7 +125,8 @@ public class PaymentController {
     public ResponseEntity<?> createPayment(
             @RequestHeader("X-Api-Key") String apiKey,
             @RequestHeader("X-Api-Secret") String apiSecret,
-            @RequestBody Map<String, Object> request
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody PaymentRequest request
     ) {
         Merchant merchant;
         try {
@@ -118,16 +138,21 @@ public class PaymentController {
             ));
         }
 
-        String orderId = (String) request.get("order_id");
-        if (orderId == null) {
+        return idempotencyService.execute(merchant.getId() + ":payments", idempotencyKey, request,
+                () -> doCreatePayment(merchant, request));
+    }
+
+    private ResponseEntity<?> doCreatePayment(Merchant merchant, PaymentRequest request) {
+        if (request.orderId() == null) {
             return ResponseEntity.badRequest().body(error(
                     "BAD_REQUEST_ERROR",
                     "order_id is required"
             ));
         }
 
-        Order order = orderRepository
-                .findByIdAndMerchantId(orderId, merchant.getId().toString())
+        OrderSnapshot order = orderRepository
+                .findByIdAndMerchantId(request.orderId(), merchant.getId().toString())
+                .map(OrderSnapshot::from)
                 .orElse(null);
 
         if (order == null) {
@@ -137,33 +162,42 @@ public class PaymentController {
             ));
         }
 
-        String method = (String) request.get("method");
-        if (method == null) {
+        if (request.method() == null) {
             return ResponseEntity.badRequest().body(error(
                     "BAD_REQUEST_ERROR",
                     "payment method is required"
             ));
         }
 
+        return charge(order, request);
+    }
+
+    // Shared by the public and merchant endpoints once the order is resolved
+    private ResponseEntity<?> charge(OrderSnapshot order, PaymentRequest request) {
         try {
             Payment payment;
 
-            if ("upi".equals(method)) {
+            if ("upi".equals(request.method())) {
                 payment = paymentService.createPayment(
-                        order, "upi", (String) request.get("vpa"),
-                        null, null, null
+                        order, "upi", request.vpa(), null, null, null
                 );
-            } else if ("card".equals(method)) {
-                Map<String, String> card =
-                        (Map<String, String>) request.get("card");
+            } else if ("card".equals(request.method())) {
+                PaymentRequest.Card card = request.card();
+
+                if (card == null) {
+                    return ResponseEntity.badRequest().body(error(
+                            "BAD_REQUEST_ERROR",
+                            "card details required"
+                    ));
+                }
 
                 payment = paymentService.createPayment(
                         order,
                         "card",
                         null,
-                        card.get("number"),
-                        card.get("expiry_month"),
-                        card.get("expiry_year")
+                        card.number(),
+                        card.expiryMonth(),
+                        card.expiryYear()
                 );
             } else {
                 return ResponseEntity.badRequest().body(error(
@@ -172,11 +206,15 @@ public class PaymentController {
                 ));
             }
 
-            return ResponseEntity.status(201).body(buildPaymentResponse(payment));
+            return ResponseEntity.status(201).body(new PaymentResponse(payment));
 
         } catch (IllegalArgumentException e) {
             String code = e.getMessage();
             return ResponseEntity.badRequest().body(error(code, errorMessage(code)));
+        } catch (IllegalStateException e) {
+            String code = e.getMessage();
+            int status = "ORDER_NOT_PAYABLE".equals(code) ? 409 : 503;
+            return ResponseEntity.status(status).body(error(code, errorMessage(code)));
         }
     }
 
@@ -199,7 +237,7 @@ public class PaymentController {
             ));
         }
 
-        Payment payment = paymentRepository.findById(paymentId).orElse(null);
+        Payment payment = paymentService.findPayment(paymentId).orElse(null);
 
         if (payment == null ||
                 !payment.getMerchantId().equals(merchant.getId().toString())) {
@@ -209,37 +247,98 @@ public class PaymentController {
             ));
         }
 
-        return ResponseEntity.ok(buildPaymentResponse(payment));
+        return ResponseEntity.ok(new PaymentResponse(payment));
     }
 
     // =========================================================
-    // HELPERS
+    // BULK PAYMENT STATUS (AUTH — RECONCILIATION)
     // =========================================================
-    private Map<String, Object> buildPaymentResponse(Payment p) {
-        Map<String, Object> res = new HashMap<>();
-        res.put("id", p.getId());
-        res.put("order_id", p.getOrderId());
-        res.put("amount", p.getAmount());
-        res.put("currency", p.getCurrency());
-        res.put("method", p.getMethod());
-        res.put("status", p.getStatus());
-        res.put("created_at", p.getCreatedAt().toString());
-        res.put("updated_at", p.getUpdatedAt().toString());
-
-        if ("upi".equals(p.getMethod())) res.put("vpa", p.getVpa());
-        if ("card".equals(p.getMethod())) {
-            res.put("card_network", p.getCardNetwork());
-            res.put("card_last4", p.getCardLast4());
+    @PostMapping("/status")
+    public ResponseEntity<?> getPaymentStatuses(
+            @RequestHeader("X-Api-Key") String apiKey,
+            @RequestHeader("X-Api-Secret") String apiSecret,
+            @RequestBody PaymentStatusRequest request
+    ) {
+        Merchant merchant;
+        try {
+            merchant = authService.authenticate(apiKey, apiSecret);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(401).body(error(
+                    "AUTHENTICATION_ERROR",
+                    "Invalid API credentials"
+            ));
+        }
+
+        if ((request.ids() == null) == (request.orderId() == null)) {
+            return ResponseEntity.badRequest().body(error(
+                    "BAD_REQUEST_ERROR",
+                    "exactly one of ids or order_id is required"
+            ));
         }
 
-        if ("failed".equals(p.getStatus())) {
-            res.put("error_code", p.getErrorCode());
-            res.put("error_description", p.getErrorDescription());
+        String merchantId = merchant.getId().toString();
+
+        if (request.orderId() != null) {
+            return ResponseEntity.ok(new PaymentStatusResponse(
+                    paymentService.findStatusesByOrder(merchantId, request.orderId()),
+                    List.of()
+            ));
         }
 
-        return res;
+        if (request.ids().isEmpty() || request.ids().size() > maxStatusIds) {
+            return ResponseEntity.badRequest().body(error(
+                    "BAD_REQUEST_ERROR",
+                    "ids must contain 1 to " + maxStatusIds + " payment ids"
+            ));
+        }
+
+        Set<String> ids = new LinkedHashSet<>(request.ids());
+        if (ids.contains(null)) {
+            return ResponseEntity.badRequest().body(error(
+                    "BAD_REQUEST_ERROR",
+                    "ids must not contain null"
+            ));
+        }
+
+        // Rows come back in index order; answer in request order instead
+        Map<String, PaymentQueryRepository.StatusView> found = new HashMap<>(ids.size() * 2);
+        for (PaymentQueryRepository.StatusView p : paymentService.findStatuses(merchantId, ids)) {
+            found.put(p.id(), p);
+        }
+
+        List<PaymentQueryRepository.StatusView> items = new ArrayList<>(found.size());
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            PaymentQueryRepository.StatusView p = found.get(id);
+            if (p == null) {
+                missing.add(id);
+            } else {
+                items.add(p);
+            }
+        }
+
+        return ResponseEntity.ok(new PaymentStatusResponse(items, missing));
     }
 
+    // =========================================================
+    // PAYMENT STATUS STREAM (CHECKOUT — SSE, NO AUTH)
+    // =========================================================
+    @GetMapping("/{paymentId}/public/events")
+    public ResponseEntity<ResponseBodyEmitter> streamPaymentPublic(@PathVariable String paymentId) {
+        try {
+            return ResponseEntity.ok()
+                    .header("X-Accel-Buffering", "no")
+                    .body(paymentEventStreamer.open(paymentId, PublicPaymentResponse::new));
+        } catch (IllegalStateException e) {
+            return emittedError(503, "SERVICE_UNAVAILABLE_ERROR", "Too many open payment streams");
+        } catch (RuntimeException e) {
+            return emittedError(404, "NOT_FOUND_ERROR", "Payment not found");
+        }
+    }
+
+    // =========================================================
+    // HELPERS
+    // =========================================================
     private Map<String, Object> error(String code, String description) {
         return Map.of(
                 "error", Map.of(
@@ -249,36 +348,257 @@ public class PaymentController {
         );
     }
 
+    // Streamed endpoints are dispatched on the declared body type, so their
+    // errors have to be written through the same type
+    private ResponseEntity<ResponseBodyEmitter> emittedError(int status, String code, String description) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        try {
+            emitter.send(error(code, description), MediaType.APPLICATION_JSON);
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(emitter);
+    }
+
+    // Streamed responses are only written after an async dispatch, so the
+    // streamed endpoints throw their errors instead and get a plain body
+    // from streamRejected below before the response ever goes async
+    private static final class StreamRejectedException extends RuntimeException {
+
+        private final int status;
+        private final String code;
+
+        StreamRejectedException(int status, String code, String description) {
+            super(description, null, false, false);
+            this.status = status;
+            this.code = code;
+        }
+    }
+
+    private static StreamRejectedException rejected(int status, String code, String description) {
+        return new StreamRejectedException(status, code, description);
+    }
+
+    @ExceptionHandler(StreamRejectedException.class)
+    public ResponseEntity<Map<String, Object>> streamRejected(StreamRejectedException e) {
+        return ResponseEntity.status(e.status).body(error(e.code, e.getMessage()));
+    }
+
+    // The async request executor was full when a streamed response was handed to it
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Map<String, Object>> asyncRejected(TaskRejectedException e) {
+        return ResponseEntity.status(503).body(error(
+                "SERVICE_UNAVAILABLE_ERROR",
+                "Server is busy, retry later"
+        ));
+    }
+
+    // Malformed JSON or a field of the wrong type in a typed request body
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Map<String, Object>> unreadableRequest(HttpMessageNotReadableException e) {
+        return ResponseEntity.badRequest().body(error(
+                "BAD_REQUEST_ERROR",
+                "request body is malformed or has a field of the wrong type"
+        ));
+    }
+
     private String errorMessage(String code) {
         return switch (code) {
             case "INVALID_VPA" -> "VPA format invalid";
             case "INVALID_CARD" -> "Card validation failed";
             case "EXPIRED_CARD" -> "Card expiry date invalid";
+            case "PROCESSING_QUEUE_FULL" -> "Payment processing capacity exhausted, retry later";
+            case "ORDER_NOT_PAYABLE" -> "Order is already paid or has a payment in progress";
+            case "NO_PROCESSOR" -> "No payment processor configured for this method";
+            case "PROCESSOR_UNAVAILABLE" -> "Payment processor is unavailable, retry later";
+            case "PROCESSOR_BUSY" -> "Payment processor capacity exhausted, retry later";
             default -> "Payment processing failed";
         };
     }
-    @GetMapping
-public ResponseEntity<?> listPayments(
-        @RequestHeader("X-Api-Key") String apiKey,
-        @RequestHeader("X-Api-Secret") String apiSecret
-) {
-    Merchant merchant;
-    try {
-        merchant = authService.authenticate(apiKey, apiSecret);
-    } catch (RuntimeException e) {
-        return ResponseEntity.status(401).body(Map.of(
-                "error", Map.of(
-                        "code", "AUTHENTICATION_ERROR",
-                        "description", "Invalid API credentials"
-                )
-        ));
+    // =========================================================
+    // EXPORT PAYMENTS (AUTH — CSV / NDJSON, STREAMED)
+    // =========================================================
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportPayments(
+            @RequestHeader("X-Api-Key") String apiKey,
+            @RequestHeader("X-Api-Secret") String apiSecret,
+            @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding,
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "method", required = false) String method,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "gzip", required = false) Boolean gzip,
+            HttpServletResponse response
+    ) {
+        Merchant merchant;
+        try {
+            merchant = authService.authenticate(apiKey, apiSecret);
+        } catch (RuntimeException e) {
+            throw rejected(401, "AUTHENTICATION_ERROR", "Invalid API credentials");
+        }
+
+        boolean csv = "csv".equals(format);
+        if (!csv && !"ndjson".equals(format)) {
+            throw rejected(400, "BAD_REQUEST_ERROR", "format must be csv or ndjson");
+        }
+
+        PaymentQueryRepository.Filter filter;
+        try {
+            filter = new PaymentQueryRepository.Filter(
+                    status,
+                    method,
+                    from == null ? null : Instant.parse(from),
+                    to == null ? null : Instant.parse(to)
+            );
+        } catch (DateTimeParseException e) {
+            throw rejected(400, "BAD_REQUEST_ERROR", "invalid time range");
+        }
+
+        boolean compress = gzip != null
+                ? gzip
+                : acceptEncoding != null && acceptEncoding.contains("gzip");
+        String merchantId = merchant.getId().toString();
+
+        try {
+            paymentService.reserveExport();
+        } catch (IllegalStateException e) {
+            throw rejected(503, "SERVICE_UNAVAILABLE_ERROR", "Too many exports in progress, retry later");
+        }
+
+        String filename = "payments-" + Instant.now().getEpochSecond() + (csv ? ".csv" : ".ndjson");
+        response.setContentType(csv ? "text/csv; charset=UTF-8" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (compress) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        // Whichever of the export and the request completion claims the
+        // permit first releases it, so a task that never ran cannot leak it
+        AtomicBoolean claimed = new AtomicBoolean();
+        Callable<Void> export = () -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return null;
+            }
+            try {
+                OutputStream raw = response.getOutputStream();
+                OutputStream out = compress ? new GZIPOutputStream(raw, EXPORT_BUFFER_BYTES) : raw;
+
+                if (csv) {
+                    Writer writer = new BufferedWriter(
+                            new OutputStreamWriter(out, StandardCharsets.UTF_8), EXPORT_BUFFER_BYTES);
+                    writer.write(PaymentCsvWriter.HEADER);
+                    paymentService.streamPaymentsExport(merchantId, filter, p -> {
+                        try {
+                            PaymentCsvWriter.write(writer, p);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    writer.close();
+                } else {
+                    JsonGenerator gen = objectMapper.getFactory().createGenerator(out);
+                    gen.setRootValueSeparator(null);
+                    paymentService.streamPaymentsExport(merchantId, filter, p -> {
+                        try {
+                            PaymentJsonWriter.write(gen, p);
+                            gen.writeRaw('\n');
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    gen.close();
+                }
+                return null;
+            } finally {
+                paymentService.releaseExport();
+            }
+        };
+
+        WebAsyncTask<Void> task = new WebAsyncTask<>(exportTimeoutMs, exportExecutor, export);
+        task.onCompletion(() -> {
+            if (claimed.compareAndSet(false, true)) {
+                paymentService.releaseExport();
+            }
+        });
+        return task;
     }
 
-    return ResponseEntity.ok(
-            paymentService.getPaymentsByMerchant(
-                    merchant.getId().toString()
-            )
-    );
-}
+    // =========================================================
+    // LIST PAYMENTS (AUTH — KEYSET PAGINATION, STREAMED)
+    // =========================================================
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> listPayments(
+            @RequestHeader("X-Api-Key") String apiKey,
+            @RequestHeader("X-Api-Secret") String apiSecret,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "method", required = false) String method,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to
+    ) {
+        Merchant merchant;
+        try {
+            merchant = authService.authenticate(apiKey, apiSecret);
+        } catch (RuntimeException e) {
+            throw rejected(401, "AUTHENTICATION_ERROR", "Invalid API credentials");
+        }
+
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw rejected(400, "BAD_REQUEST_ERROR", "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        PaymentQueryRepository.Filter filter;
+        PaymentQueryRepository.Cursor after;
+        try {
+            filter = new PaymentQueryRepository.Filter(
+                    status,
+                    method,
+                    from == null ? null : Instant.parse(from),
+                    to == null ? null : Instant.parse(to)
+            );
+            after = cursor == null ? null : PaymentQueryRepository.Cursor.decode(cursor);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw rejected(400, "BAD_REQUEST_ERROR", "invalid cursor or time range");
+        }
+
+        String merchantId = merchant.getId().toString();
+
+        // The page is read before the response goes async, so a slow client
+        // holds an async request thread but no database connection. One
+        // extra row is read to know whether another page exists
+        List<Payment> page = paymentService.findPaymentsPage(merchantId, filter, after, pageSize + 1);
+        boolean hasMore = page.size() > pageSize;
+        List<Payment> items = hasMore ? page.subList(0, pageSize) : page;
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.writeStartObject();
+                gen.writeArrayFieldStart("items");
+                for (Payment p : items) {
+                    PaymentJsonWriter.write(gen, p);
+                }
+                gen.writeEndArray();
+                gen.writeBooleanField("has_more", hasMore);
+                if (hasMore) {
+                    gen.writeStringField("next_cursor",
+                            PaymentQueryRepository.Cursor.after(items.get(items.size() - 1)).encode());
+                } else {
+                    gen.writeNullField("next_cursor");
+                }
+                gen.writeEndObject();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
 
 }
@@ -0,0 +1,71 @@
+package com.payment.gateway.controllers;
+
+import com.payment.gateway.models.Payment;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * RFC 4180 CSV rows for payment exports.
+ */
+public final class PaymentCsvWriter {
+
+    public static final String HEADER =
+            "id,order_id,amount,currency,method,status,vpa,card_network,card_last4,"
+                    + "error_code,error_description,created_at,updated_at\r\n";
+
+    private PaymentCsvWriter() {
+    }
+
+    public static void write(Writer out, Payment p) throws IOException {
+        field(out, p.getId());
+        out.write(',');
+        field(out, p.getOrderId());
+        out.write(',');
+        out.write(Integer.toString(p.getAmount()));
+        out.write(',');
+        field(out, p.getCurrency());
+        out.write(',');
+        field(out, p.getMethod());
+        out.write(',');
+        field(out, p.getStatus());
+        out.write(',');
+        field(out, p.getVpa());
+        out.write(',');
+        field(out, p.getCardNetwork());
+        out.write(',');
+        field(out, p.getCardLast4());
+        out.write(',');
+        field(out, p.getErrorCode());
+        out.write(',');
+        field(out, p.getErrorDescription());
+        out.write(',');
+        field(out, p.getCreatedAt() == null ? null : p.getCreatedAt().toString());
+        out.write(',');
+        field(out, p.getUpdatedAt() == null ? null : p.getUpdatedAt().toString());
+        out.write("\r\n");
+    }
+
+    private static void field(Writer out, String value) throws IOException {
+        if (value == null) return;
+
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') out.write('"');
+            out.write(c);
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,43 @@
+package com.payment.gateway.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.payment.gateway.models.Payment;
+
+import java.io.IOException;
+
+/**
+ * Writes the payment representation straight to a JsonGenerator, without an
+ * intermediate Map. Used by PaymentResponse, the listing, export and webhooks.
+ */
+public final class PaymentJsonWriter {
+
+    private PaymentJsonWriter() {
+    }
+
+    public static void write(JsonGenerator gen, Payment p) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("id", p.getId());
+        gen.writeStringField("order_id", p.getOrderId());
+        gen.writeNumberField("amount", p.getAmount());
+        gen.writeStringField("currency", p.getCurrency());
+        gen.writeStringField("method", p.getMethod());
+        gen.writeStringField("status", p.getStatus());
+        gen.writeStringField("created_at", p.getCreatedAt().toString());
+        gen.writeStringField("updated_at", p.getUpdatedAt().toString());
+
+        if ("upi".equals(p.getMethod())) {
+            gen.writeStringField("vpa", p.getVpa());
+        }
+        if ("card".equals(p.getMethod())) {
+            gen.writeStringField("card_network", p.getCardNetwork());
+            gen.writeStringField("card_last4", p.getCardLast4());
+        }
+
+        if ("failed".equals(p.getStatus())) {
+            gen.writeStringField("error_code", p.getErrorCode());
+            gen.writeStringField("error_description", p.getErrorDescription());
+        }
+
+        gen.writeEndObject();
+    }
+}
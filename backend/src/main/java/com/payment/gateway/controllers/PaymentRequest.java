@@ -0,0 +1,22 @@
+package com.payment.gateway.controllers;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Body of POST /api/v1/payments and /api/v1/payments/public, bound directly
+ * by Jackson instead of going through a Map and casts. Card fields the
+ * gateway does not use (cvv, holder_name) are accepted and ignored.
+ */
+public record PaymentRequest(
+        @JsonProperty("order_id") String orderId,
+        String method,
+        String vpa,
+        Card card
+) {
+
+    public record Card(
+            String number,
+            @JsonProperty("expiry_month") String expiryMonth,
+            @JsonProperty("expiry_year") String expiryYear
+    ) { }
+}
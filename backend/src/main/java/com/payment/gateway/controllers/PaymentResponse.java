@@ -0,0 +1,34 @@
+package com.payment.gateway.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.payment.gateway.models.Payment;
+
+import java.io.IOException;
+
+/**
+ * Payment representation returned by the single-payment endpoints.
+ * Serialized by PaymentJsonWriter, so it has the same fields as the listing
+ * and export rows and needs no intermediate Map. The public status stream
+ * uses PublicPaymentResponse instead.
+ */
+@JsonSerialize(using = PaymentResponse.Serializer.class)
+public record PaymentResponse(Payment payment) {
+
+    static final class Serializer extends StdSerializer<PaymentResponse> {
+
+        private static final long serialVersionUID = 1L;
+
+        Serializer() {
+            super(PaymentResponse.class);
+        }
+
+        @Override
+        public void serialize(PaymentResponse value, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            PaymentJsonWriter.write(gen, value.payment());
+        }
+    }
+}
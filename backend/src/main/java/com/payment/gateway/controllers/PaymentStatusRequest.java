@@ -0,0 +1,11 @@
+package com.payment.gateway.controllers;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/** Body of POST /api/v1/payments/status: either payment ids or one order id. */
+public record PaymentStatusRequest(
+        List<String> ids,
+        @JsonProperty("order_id") String orderId
+) { }
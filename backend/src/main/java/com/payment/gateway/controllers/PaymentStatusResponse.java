@@ -0,0 +1,58 @@
+package com.payment.gateway.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.payment.gateway.repositories.PaymentQueryRepository.StatusView;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Result of a bulk status lookup: the compact status of every payment found,
+ * plus the requested ids that do not exist or belong to another merchant.
+ */
+@JsonSerialize(using = PaymentStatusResponse.Serializer.class)
+public record PaymentStatusResponse(List<StatusView> items, List<String> missing) {
+
+    static final class Serializer extends StdSerializer<PaymentStatusResponse> {
+
+        private static final long serialVersionUID = 1L;
+
+        Serializer() {
+            super(PaymentStatusResponse.class);
+        }
+
+        @Override
+        public void serialize(PaymentStatusResponse value, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject();
+            gen.writeNumberField("count", value.items().size());
+
+            gen.writeArrayFieldStart("items");
+            for (StatusView p : value.items()) {
+                gen.writeStartObject();
+                gen.writeStringField("id", p.id());
+                gen.writeStringField("order_id", p.orderId());
+                gen.writeStringField("method", p.method());
+                gen.writeNumberField("amount", p.amount());
+                gen.writeStringField("status", p.status());
+                if ("failed".equals(p.status())) {
+                    gen.writeStringField("error_code", p.errorCode());
+                }
+                gen.writeStringField("updated_at", p.updatedAt().toString());
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+
+            gen.writeArrayFieldStart("missing");
+            for (String id : value.missing()) {
+                gen.writeString(id);
+            }
+            gen.writeEndArray();
+
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.payment.gateway.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.payment.gateway.models.OrderSnapshot;
+
+import java.io.IOException;
+
+/** Checkout view of an order: only what the payment page shows. */
+@JsonSerialize(using = PublicOrderResponse.Serializer.class)
+public record PublicOrderResponse(OrderSnapshot order) {
+
+    static final class Serializer extends StdSerializer<PublicOrderResponse> {
+
+        private static final long serialVersionUID = 1L;
+
+        Serializer() {
+            super(PublicOrderResponse.class);
+        }
+
+        @Override
+        public void serialize(PublicOrderResponse value, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            OrderSnapshot order = value.order();
+            gen.writeStartObject();
+            gen.writeStringField("id", order.id());
+            gen.writeNumberField("amount", order.amount());
+            gen.writeStringField("currency", order.currency());
+            gen.writeStringField("status", order.status());
+            gen.writeEndObject();
+        }
+    }
+}
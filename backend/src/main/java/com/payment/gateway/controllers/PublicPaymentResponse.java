@@ -0,0 +1,40 @@
+package com.payment.gateway.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.payment.gateway.models.Payment;
+
+import java.io.IOException;
+
+/**
+ * Checkout view of a payment for the unauthenticated status stream: only
+ * what the payment page shows, never order, amount or instrument details.
+ */
+@JsonSerialize(using = PublicPaymentResponse.Serializer.class)
+public record PublicPaymentResponse(Payment payment) {
+
+    static final class Serializer extends StdSerializer<PublicPaymentResponse> {
+
+        private static final long serialVersionUID = 1L;
+
+        Serializer() {
+            super(PublicPaymentResponse.class);
+        }
+
+        @Override
+        public void serialize(PublicPaymentResponse value, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            Payment p = value.payment();
+            gen.writeStartObject();
+            gen.writeStringField("id", p.getId());
+            gen.writeStringField("status", p.getStatus());
+            if ("failed".equals(p.getStatus())) {
+                gen.writeStringField("error_code", p.getErrorCode());
+                gen.writeStringField("error_description", p.getErrorDescription());
+            }
+            gen.writeEndObject();
+        }
+    }
+}
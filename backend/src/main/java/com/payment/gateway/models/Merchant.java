@@ -1,15 +1,17 @@
 package com.payment.gateway.models;
 
+import com.payment.gateway.services.MerchantCacheInvalidator;
 import jakarta.persistence.*;
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
+@EntityListeners(MerchantCacheInvalidator.class)
 @Table(
     name = "merchants",
     uniqueConstraints = {
-        @UniqueConstraint(columnNames = "email"),
-        @UniqueConstraint(columnNames = "api_key")
+        @UniqueConstraint(name = "uk_merchants_email", columnNames = "email"),
+        @UniqueConstraint(name = "uk_merchants_api_key", columnNames = "api_key")
     }
 )
 public class Merchant {
@@ -27,12 +29,17 @@ public class Merchant {
     @Column(name = "api_key", nullable = false, length = 64, unique = true)
     private String apiKey;
 
-    @Column(name = "api_secret", nullable = false, length = 64)
-    private String apiSecret;
+    // Salted PBKDF2 hash, see SecretHasher; the plaintext secret is never stored
+    @Column(name = "api_secret_hash", nullable = false, length = 255)
+    private String apiSecretHash;
 
     @Column(name = "webhook_url", columnDefinition = "TEXT")
     private String webhookUrl;
 
+    // HMAC key for webhook signatures; shared with the merchant, so plaintext
+    @Column(name = "webhook_secret", length = 64)
+    private String webhookSecret;
+
     @Column(name = "is_active")
     private Boolean isActive = true;
 
@@ -76,12 +83,12 @@ public class Merchant {
         this.apiKey = apiKey;
     }
 
-    public String getApiSecret() {
-        return apiSecret;
+    public String getApiSecretHash() {
+        return apiSecretHash;
     }
 
-    public void setApiSecret(String apiSecret) {
-        this.apiSecret = apiSecret;
+    public void setApiSecretHash(String apiSecretHash) {
+        this.apiSecretHash = apiSecretHash;
     }
 
     public String getWebhookUrl() {
@@ -92,6 +99,14 @@ public class Merchant {
         this.webhookUrl = webhookUrl;
     }
 
+    public String getWebhookSecret() {
+        return webhookSecret;
+    }
+
+    public void setWebhookSecret(String webhookSecret) {
+        this.webhookSecret = webhookSecret;
+    }
+
     public Boolean getIsActive() {
         return isActive;
     }
@@ -1,13 +1,15 @@
 package com.payment.gateway.models;
 
+import com.payment.gateway.services.OrderCacheInvalidator;
 import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
+@EntityListeners(OrderCacheInvalidator.class)
 @Table(
     name = "orders",
     indexes = {
-        @Index(name = "idx_orders_merchant_id", columnList = "merchant_id")
+        @Index(name = "idx_orders_id_merchant", columnList = "id, merchant_id")
     }
 )
 public class Order {
@@ -0,0 +1,24 @@
+package com.payment.gateway.models;
+
+/**
+ * Immutable view of the order fields the checkout path needs; safe to share
+ * between threads through OrderSnapshotCache.
+ */
+public record OrderSnapshot(
+        String id,
+        String merchantId,
+        Integer amount,
+        String currency,
+        String status
+) {
+
+    public static OrderSnapshot from(Order order) {
+        return new OrderSnapshot(
+                order.getId(),
+                order.getMerchantId(),
+                order.getAmount(),
+                order.getCurrency(),
+                order.getStatus()
+        );
+    }
+}
@@ -6,9 +6,10 @@ import java.time.Instant;
 @Entity
 @Table(
     name = "payments",
+    // Plus the partial idx_payments_processing, which JPA cannot express
     indexes = {
         @Index(name = "idx_payments_order_id", columnList = "order_id"),
-        @Index(name = "idx_payments_status", columnList = "status")
+        @Index(name = "idx_payments_merchant_created", columnList = "merchant_id, created_at")
     }
 )
 public class Payment {
@@ -53,7 +54,8 @@ public class Payment {
     @Column(name = "error_description", columnDefinition = "TEXT")
     private String errorDescription;
 
-    @Column(name = "created_at", updatable = false)
+    // Partition key of the payments table
+    @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt = Instant.now();
 
     @Column(name = "updated_at")
@@ -98,6 +100,8 @@ public class Payment {
     public void setErrorDescription(String errorDescription) { this.errorDescription = errorDescription; }
 
     public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
     public Instant getUpdatedAt() { return updatedAt; }
 
     public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
@@ -0,0 +1,45 @@
+package com.payment.gateway.repositories;
+
+import com.payment.gateway.models.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Returns 1 if this caller now owns the key, 0 if it was already taken
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO idempotency_keys "
+            + "(id, scope, idempotency_key, request_hash, response_status, response_body, created_at) "
+            + "VALUES (:id, :scope, :key, :requestHash, NULL, NULL, :now) "
+            + "ON CONFLICT (id) DO NOTHING", nativeQuery = true)
+    int reserve(String id, String scope, String key, String requestHash, Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.responseStatus = :status, r.responseBody = :body "
+            + "WHERE r.id = :id AND r.responseStatus IS NULL")
+    int complete(String id, int status, String body);
+
+    // Gives a reservation back so a retry can run the request again
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.responseStatus IS NULL")
+    int release(String id);
+
+    // Takes over a reservation whose owner stopped before completing it
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE idempotency_keys SET request_hash = :requestHash, created_at = :now "
+            + "WHERE id = :id AND response_status IS NULL AND created_at < :staleBefore", nativeQuery = true)
+    int takeOver(String id, String requestHash, Instant now, Instant staleBefore);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(Instant cutoff);
+}
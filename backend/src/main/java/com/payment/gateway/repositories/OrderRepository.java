@@ -2,9 +2,19 @@ package com.payment.gateway.repositories;
 
 import com.payment.gateway.models.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, String> {
     Optional<Order> findByIdAndMerchantId(String id, String merchantId);
+
+    // Compare-and-set on status: 0 rows when the order is no longer in `from`
+    @Modifying
+    @Transactional
+    @Query("UPDATE Order o SET o.status = :to, o.updatedAt = :now WHERE o.id = :id AND o.status = :from")
+    int transition(String id, String from, String to, Instant now);
 }
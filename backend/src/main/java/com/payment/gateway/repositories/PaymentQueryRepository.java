@@ -0,0 +1,248 @@
+package com.payment.gateway.repositories;
+
+import com.payment.gateway.models.Payment;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Read-only JDBC queries over payments that stream rows instead of loading
+ * them into the persistence context.
+ */
+@Repository
+public class PaymentQueryRepository {
+
+    private static final String COLUMNS =
+            "id, order_id, merchant_id, amount, currency, method, status, vpa, "
+                    + "card_network, card_last4, error_code, error_description, "
+                    + "created_at, updated_at";
+
+    private static final String STATUS_COLUMNS =
+            "id, order_id, method, amount, status, error_code, updated_at";
+
+    /** Optional filters; null fields are ignored. Time range is [from, to). */
+    public record Filter(String status, String method, Instant from, Instant to) { }
+
+    /** Compact projection returned by the bulk status lookup. */
+    public record StatusView(String id, String orderId, String method, Integer amount,
+                             String status, String errorCode, Instant updatedAt) { }
+
+    /** Position after the last row of a page, ordered by (created_at, id) descending. */
+    public record Cursor(Instant createdAt, String id) {
+
+        public static Cursor after(Payment last) {
+            return new Cursor(last.getCreatedAt(), last.getId());
+        }
+
+        /** Opaque token handed to clients as next_cursor. */
+        public String encode() {
+            String raw = createdAt.toString() + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /** Throws IllegalArgumentException for a malformed token. */
+        public static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int sep = raw.indexOf('|');
+                if (sep < 0) throw new IllegalArgumentException("INVALID_CURSOR");
+                return new Cursor(Instant.parse(raw.substring(0, sep)), raw.substring(sep + 1));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("INVALID_CURSOR", e);
+            }
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate exportJdbcTemplate;
+    private final TransactionTemplate exportTransaction;
+
+    public PaymentQueryRepository(DataSource dataSource,
+                                  @Qualifier("exportDataSource") DataSource exportDataSource,
+                                  @Value("${EXPORT_FETCH_SIZE:2000}") int exportFetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // PostgreSQL only uses a server-side cursor when a fetch size is set
+        // and autocommit is off, hence the read-only transaction around queries.
+        // Exports run on their own pool (see DataSourceConfig), so their
+        // transaction is bound to that pool rather than the JPA one
+        this.exportJdbcTemplate = new JdbcTemplate(exportDataSource);
+        this.exportJdbcTemplate.setFetchSize(exportFetchSize);
+
+        this.exportTransaction = new TransactionTemplate(new DataSourceTransactionManager(exportDataSource));
+        this.exportTransaction.setReadOnly(true);
+    }
+
+    // ---------------- KEYSET PAGE ----------------
+
+    /**
+     * Up to {@code limit} payments of a merchant, newest first, starting
+     * after {@code after} (or from the top when null). The page is read in
+     * full, so the connection goes back to the pool before anything is
+     * written to the client.
+     */
+    public List<Payment> findPage(String merchantId, Filter filter, Cursor after, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS)
+                .append(" FROM payments WHERE merchant_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(merchantId);
+
+        appendFilter(sql, args, filter);
+
+        if (after != null) {
+            // The plain created_at bound is implied by the row comparison but
+            // lets the planner prune newer monthly partitions
+            sql.append(" AND created_at <= ? AND (created_at, id) < (?, ?)");
+            args.add(Timestamp.from(after.createdAt()));
+            args.add(Timestamp.from(after.createdAt()));
+            args.add(after.id());
+        }
+
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> mapRow(rs), args.toArray());
+    }
+
+    // ---------------- EXPORT ----------------
+
+    /**
+     * Streams every matching payment of a merchant, oldest first, through a
+     * forward-only cursor on a connection from the export pool. Each row is
+     * handed to the consumer and dropped.
+     */
+    public void streamExport(String merchantId, Filter filter, Consumer<Payment> consumer) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS)
+                .append(" FROM payments WHERE merchant_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(merchantId);
+
+        appendFilter(sql, args, filter);
+        sql.append(" ORDER BY created_at, id");
+
+        exportTransaction.executeWithoutResult(status ->
+                exportJdbcTemplate.query(sql.toString(),
+                        rs -> { consumer.accept(mapRow(rs)); },
+                        args.toArray()));
+    }
+
+    // ---------------- BULK STATUS ----------------
+
+    /**
+     * Statuses of the given payments that belong to the merchant, in one
+     * query. The ids are bound as a single array parameter (= ANY), so the
+     * statement text is the same for any number of ids and stays in the
+     * driver's prepared statement cache.
+     */
+    public List<StatusView> findStatuses(String merchantId, Collection<String> ids) {
+        return jdbcTemplate.query(
+                "SELECT " + STATUS_COLUMNS + " FROM payments WHERE id = ANY(?) AND merchant_id = ?",
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("varchar", ids.toArray()));
+                    ps.setString(2, merchantId);
+                },
+                (rs, rowNum) -> mapStatus(rs));
+    }
+
+    /**
+     * As findStatuses, for payments created in [from, to), so only the
+     * partitions covering that range are scanned.
+     */
+    public List<StatusView> findStatusesCreatedBetween(String merchantId, Collection<String> ids,
+                                                       Instant from, Instant to) {
+        return jdbcTemplate.query(
+                "SELECT " + STATUS_COLUMNS + " FROM payments WHERE id = ANY(?) AND merchant_id = ? "
+                        + "AND created_at >= ? AND created_at < ?",
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("varchar", ids.toArray()));
+                    ps.setString(2, merchantId);
+                    ps.setTimestamp(3, Timestamp.from(from));
+                    ps.setTimestamp(4, Timestamp.from(to));
+                },
+                (rs, rowNum) -> mapStatus(rs));
+    }
+
+    /** Statuses of every payment of one order, oldest first. */
+    public List<StatusView> findStatusesByOrder(String merchantId, String orderId) {
+        return jdbcTemplate.query(
+                "SELECT " + STATUS_COLUMNS + " FROM payments WHERE order_id = ? AND merchant_id = ? "
+                        + "ORDER BY created_at, id",
+                (rs, rowNum) -> mapStatus(rs),
+                orderId, merchantId);
+    }
+
+    // ---------------- HELPERS ----------------
+
+    private void appendFilter(StringBuilder sql, List<Object> args, Filter filter) {
+        if (filter == null) return;
+
+        if (filter.status() != null) {
+            sql.append(" AND status = ?");
+            args.add(filter.status());
+        }
+        if (filter.method() != null) {
+            sql.append(" AND method = ?");
+            args.add(filter.method());
+        }
+        if (filter.from() != null) {
+            sql.append(" AND created_at >= ?");
+            args.add(Timestamp.from(filter.from()));
+        }
+        if (filter.to() != null) {
+            sql.append(" AND created_at < ?");
+            args.add(Timestamp.from(filter.to()));
+        }
+    }
+
+    private Payment mapRow(ResultSet rs) throws SQLException {
+        Payment p = new Payment();
+        p.setId(rs.getString("id"));
+        p.setOrderId(rs.getString("order_id"));
+        p.setMerchantId(rs.getString("merchant_id"));
+        p.setAmount(rs.getInt("amount"));
+        p.setCurrency(rs.getString("currency"));
+        p.setMethod(rs.getString("method"));
+        p.setStatus(rs.getString("status"));
+        p.setVpa(rs.getString("vpa"));
+        p.setCardNetwork(rs.getString("card_network"));
+        p.setCardLast4(rs.getString("card_last4"));
+        p.setErrorCode(rs.getString("error_code"));
+        p.setErrorDescription(rs.getString("error_description"));
+        p.setCreatedAt(toInstant(rs.getTimestamp("created_at")));
+        p.setUpdatedAt(toInstant(rs.getTimestamp("updated_at")));
+        return p;
+    }
+
+    private StatusView mapStatus(ResultSet rs) throws SQLException {
+        return new StatusView(
+                rs.getString("id"),
+                rs.getString("order_id"),
+                rs.getString("method"),
+                rs.getInt("amount"),
+                rs.getString("status"),
+                rs.getString("error_code"),
+                toInstant(rs.getTimestamp("updated_at"))
+        );
+    }
+
+    private Instant toInstant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+}
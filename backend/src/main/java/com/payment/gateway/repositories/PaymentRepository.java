@@ -1,12 +1,44 @@
 package com.payment.gateway.repositories;
 
 import com.payment.gateway.models.Payment;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;   // ✅ REQUIRED IMPORT
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 
 public interface PaymentRepository extends JpaRepository<Payment, String> {
 
-    List<Payment> findByMerchantId(String merchantId);
+    // Served by the partial index on status = 'processing'
+    @Query("SELECT p FROM Payment p WHERE p.status = 'processing' AND p.updatedAt < :before "
+            + "ORDER BY p.updatedAt")
+    List<Payment> findStaleProcessing(Instant before, Limit limit);
 
+    // Only one node can claim a stale payment: the claim moves updated_at
+    // forward, so the payment no longer matches for anyone else
+    @Modifying
+    @Transactional
+    @Query("UPDATE Payment p SET p.updatedAt = :now "
+            + "WHERE p.id = :id AND p.createdAt = :createdAt "
+            + "AND p.status = 'processing' AND p.updatedAt < :before")
+    int claimStale(String id, Instant createdAt, Instant before, Instant now);
+
+    // The primary key is (id, created_at); bounding created_at lets
+    // PostgreSQL prune the lookup to the partitions that can hold the row
+    @Query("SELECT p FROM Payment p WHERE p.id = :id AND p.createdAt >= :from AND p.createdAt < :to")
+    Optional<Payment> findByIdCreatedBetween(String id, Instant from, Instant to);
+
+    // By the full primary key, so only the payment's own partition is touched.
+    // Only a payment still in processing is updated; the first result wins
+    @Modifying
+    @Transactional
+    @Query("UPDATE Payment p SET p.status = :status, p.errorCode = :errorCode, "
+            + "p.errorDescription = :errorDescription, p.updatedAt = :updatedAt "
+            + "WHERE p.id = :id AND p.createdAt = :createdAt AND p.status = 'processing'")
+    int updateResult(String id, Instant createdAt, String status, String errorCode,
+                     String errorDescription, Instant updatedAt);
 }
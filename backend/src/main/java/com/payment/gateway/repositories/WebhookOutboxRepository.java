@@ -0,0 +1,50 @@
+package com.payment.gateway.repositories;
+
+import com.payment.gateway.models.WebhookOutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface WebhookOutboxRepository extends JpaRepository<WebhookOutboxEvent, Long> {
+
+    // FOR UPDATE SKIP LOCKED (lock timeout -2), so several nodes can drain
+    // the outbox without picking the same rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM WebhookOutboxEvent e "
+            + "WHERE e.status = 'pending' AND e.nextAttemptAt <= :now "
+            + "ORDER BY e.nextAttemptAt")
+    List<WebhookOutboxEvent> findDueForUpdate(Instant now, Pageable page);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE WebhookOutboxEvent e SET e.status = 'delivered', e.attempts = :attempts, "
+            + "e.deliveredAt = :now, e.lastError = NULL WHERE e.id = :id")
+    int markDelivered(Long id, int attempts, Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE WebhookOutboxEvent e SET e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt, "
+            + "e.lastError = :error WHERE e.id = :id")
+    int markRetry(Long id, int attempts, Instant nextAttemptAt, String error);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE WebhookOutboxEvent e SET e.status = :status, e.attempts = :attempts, "
+            + "e.lastError = :error WHERE e.id = :id")
+    int markFinal(Long id, String status, int attempts, String error);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE WebhookOutboxEvent e SET e.nextAttemptAt = :nextAttemptAt WHERE e.id = :id")
+    int reschedule(Long id, Instant nextAttemptAt);
+}
@@ -8,22 +8,43 @@ import org.springframework.stereotype.Service;
 public class AuthenticationService {
 
     private final MerchantRepository merchantRepository;
-
-    public AuthenticationService(MerchantRepository merchantRepository) {
+    private final MerchantCredentialCache credentialCache;
+    private final CredentialVerifier credentialVerifier;
+    private final PaymentMetrics metrics;
+
+    public AuthenticationService(MerchantRepository merchantRepository,
+                                 MerchantCredentialCache credentialCache,
+                                 CredentialVerifier credentialVerifier,
+                                 PaymentMetrics metrics) {
         this.merchantRepository = merchantRepository;
+        this.credentialCache = credentialCache;
+        this.credentialVerifier = credentialVerifier;
+        this.metrics = metrics;
     }
 
     public Merchant authenticate(String apiKey, String apiSecret) {
-        Merchant merchant = merchantRepository
-                .findByApiKey(apiKey)
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Merchant merchant = lookup(apiKey, apiSecret);
+            success = true;
+            return merchant;
+        } finally {
+            metrics.recordAuth(start, success);
+        }
+    }
+
+    private Merchant lookup(String apiKey, String apiSecret) {
+        Merchant merchant = credentialCache
+                .get(apiKey, merchantRepository::findByApiKey)
                 .orElseThrow(() ->
                         new RuntimeException("AUTHENTICATION_ERROR"));
 
-        if (!merchant.getApiSecret().equals(apiSecret)) {
+        if (!Boolean.TRUE.equals(merchant.getIsActive())) {
             throw new RuntimeException("AUTHENTICATION_ERROR");
         }
 
-        if (!Boolean.TRUE.equals(merchant.getIsActive())) {
+        if (!credentialVerifier.verify(merchant, apiSecret)) {
             throw new RuntimeException("AUTHENTICATION_ERROR");
         }
 
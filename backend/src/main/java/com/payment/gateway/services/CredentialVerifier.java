@@ -0,0 +1,122 @@
+package com.payment.gateway.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.payment.gateway.models.Merchant;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Verifies API secrets against the stored PBKDF2 hash.
+ *
+ * A successful verification is remembered for a short window as an HMAC of
+ * the presented secret under a per-process random key, so each key/secret
+ * pair pays the PBKDF2 cost once per window. The entry also pins the stored
+ * hash it was verified against, so a rotated secret is never served from the
+ * table.
+ *
+ * A failed verification is remembered the same way for a shorter window, so
+ * a client retrying with a wrong secret does not cost a full PBKDF2 run per
+ * request. It pins the stored hash too: after a rotation the new secret is
+ * checked again.
+ */
+@Component
+public class CredentialVerifier {
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    private record VerifiedCredential(String secretHash, byte[] digest) { }
+
+    private final SecretHasher secretHasher;
+    private final Cache<String, VerifiedCredential> verified;
+    // apiKey + digest -> stored hash the secret was rejected against
+    private final Cache<String, String> rejected;
+    private final SecretKeySpec digestKey;
+
+    public CredentialVerifier(
+            SecretHasher secretHasher,
+            @Value("${API_SECRET_VERIFIED_MAX_SIZE:10000}") long maxSize,
+            @Value("${API_SECRET_VERIFIED_TTL_SECONDS:60}") long ttlSeconds,
+            @Value("${API_SECRET_REJECTED_MAX_SIZE:100000}") long rejectedMaxSize,
+            @Value("${API_SECRET_REJECTED_TTL_SECONDS:10}") long rejectedTtlSeconds
+    ) {
+        this.secretHasher = secretHasher;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.rejected = Caffeine.newBuilder()
+                .maximumSize(rejectedMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(rejectedTtlSeconds))
+                .recordStats()
+                .build();
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.digestKey = new SecretKeySpec(key, MAC_ALGORITHM);
+    }
+
+    public boolean verify(Merchant merchant, String apiSecret) {
+        if (apiSecret == null) return false;
+
+        String apiKey = merchant.getApiKey();
+        String secretHash = merchant.getApiSecretHash();
+        byte[] digest = digest(apiKey, apiSecret);
+
+        // ---------------- FAST PATH ----------------
+        VerifiedCredential entry = verified.getIfPresent(apiKey);
+        if (entry != null
+                && entry.secretHash().equals(secretHash)
+                && MessageDigest.isEqual(entry.digest(), digest)) {
+            return true;
+        }
+
+        String rejectedKey = apiKey + ":" + HexFormat.of().formatHex(digest);
+        if (secretHash.equals(rejected.getIfPresent(rejectedKey))) {
+            return false;
+        }
+
+        // ---------------- FULL VERIFICATION ----------------
+        if (!secretHasher.matches(apiSecret, secretHash)) {
+            rejected.put(rejectedKey, secretHash);
+            return false;
+        }
+
+        verified.put(apiKey, new VerifiedCredential(secretHash, digest));
+        return true;
+    }
+
+    public void invalidate(String apiKey) {
+        verified.invalidate(apiKey);
+    }
+
+    public Cache<String, ?> getVerifiedCache() {
+        return verified;
+    }
+
+    public Cache<String, ?> getRejectedCache() {
+        return rejected;
+    }
+
+    private byte[] digest(String apiKey, String apiSecret) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(digestKey);
+            mac.update(apiKey.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(apiSecret.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(MAC_ALGORITHM + " unavailable", e);
+        }
+    }
+}
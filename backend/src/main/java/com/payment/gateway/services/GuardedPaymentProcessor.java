@@ -0,0 +1,133 @@
+package com.payment.gateway.services;
+
+import com.payment.gateway.models.Payment;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A routed processor together with the bulkhead of its payment method, its
+ * circuit breaker and the call timeout.
+ *
+ * {@link #reserve()} runs before the payment row is written and refuses the
+ * payment with PROCESSOR_UNAVAILABLE (breaker open) or PROCESSOR_BUSY
+ * (bulkhead full). It returns the breaker permit, which
+ * {@link #process(Payment, long)} takes back when it runs the call inside the
+ * bulkhead; a call that takes longer than the timeout is declined with
+ * PROCESSOR_TIMEOUT. Errors and timeouts count as failures for the breaker,
+ * declines do not.
+ */
+public class GuardedPaymentProcessor implements PaymentProcessor {
+
+    private static final ProcessorResult TIMED_OUT =
+            ProcessorResult.declined("PROCESSOR_TIMEOUT", "Payment processor did not respond in time");
+
+    private final PaymentProcessor delegate;
+    private final ProcessorBulkhead bulkhead;
+    private final ProcessorCircuitBreaker circuitBreaker;
+    private final long timeoutMs;
+
+    private final AtomicLong approved = new AtomicLong();
+    private final AtomicLong declined = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    public GuardedPaymentProcessor(PaymentProcessor delegate,
+                                   ProcessorBulkhead bulkhead,
+                                   ProcessorCircuitBreaker circuitBreaker,
+                                   long timeoutMs) {
+        this.delegate = delegate;
+        this.bulkhead = bulkhead;
+        this.circuitBreaker = circuitBreaker;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public String name() {
+        return delegate.name();
+    }
+
+    // ---------------- ADMISSION ----------------
+
+    /**
+     * Takes a breaker permit and bulkhead capacity for one payment, and
+     * returns the permit. Throws IllegalStateException("PROCESSOR_UNAVAILABLE")
+     * or IllegalStateException("PROCESSOR_BUSY").
+     */
+    public long reserve() {
+        long permit = circuitBreaker.tryAcquire();
+        if (permit == ProcessorCircuitBreaker.REFUSED) {
+            throw new IllegalStateException("PROCESSOR_UNAVAILABLE");
+        }
+        if (!bulkhead.tryReserve()) {
+            circuitBreaker.release(permit);
+            throw new IllegalStateException("PROCESSOR_BUSY");
+        }
+        return permit;
+    }
+
+    /**
+     * Takes bulkhead capacity without waiting, ignoring the breaker; used by
+     * the recovery sweep, whose payments must be finished either way. Returns
+     * false when the bulkhead is full, and the sweep tries again on its next run.
+     * The call is then made with {@link #process(Payment)}, without a trial
+     * permit, so it cannot close a half-open breaker.
+     */
+    public boolean tryReserveForRecovery() {
+        return bulkhead.tryReserve();
+    }
+
+    /** Returns capacity taken by {@link #tryReserveForRecovery()} that will not be used. */
+    public void releaseForRecovery() {
+        bulkhead.release();
+    }
+
+    /** Returns a reservation for a payment that will not be processed. */
+    public void release(long permit) {
+        bulkhead.release();
+        circuitBreaker.release(permit);
+    }
+
+    // ---------------- CALL ----------------
+
+    /** Runs the call on capacity taken by {@link #tryReserveForRecovery()}. */
+    @Override
+    public CompletableFuture<ProcessorResult> process(Payment payment) {
+        return process(payment, ProcessorCircuitBreaker.NOT_TRIAL);
+    }
+
+    /** Runs the call on capacity taken by {@link #reserve()}, with the permit it returned. */
+    public CompletableFuture<ProcessorResult> process(Payment payment, long permit) {
+        return bulkhead.submit(() -> delegate.process(payment).orTimeout(timeoutMs, TimeUnit.MILLISECONDS))
+                .handle((result, error) -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause()
+                            : error;
+                    if (cause instanceof TimeoutException) {
+                        timeouts.incrementAndGet();
+                        circuitBreaker.record(true, permit);
+                        return TIMED_OUT;
+                    }
+                    if (cause != null) {
+                        errors.incrementAndGet();
+                        circuitBreaker.record(true, permit);
+                        throw new CompletionException(cause);
+                    }
+                    circuitBreaker.record(false, permit);
+                    (result.approved() ? approved : declined).incrementAndGet();
+                    return result;
+                });
+    }
+
+    // ---------------- STATS ----------------
+
+    public ProcessorBulkhead getBulkhead() { return bulkhead; }
+    public ProcessorCircuitBreaker getCircuitBreaker() { return circuitBreaker; }
+    public long getApprovedCount() { return approved.get(); }
+    public long getDeclinedCount() { return declined.get(); }
+    public long getErrorCount() { return errors.get(); }
+    public long getTimeoutCount() { return timeouts.get(); }
+}
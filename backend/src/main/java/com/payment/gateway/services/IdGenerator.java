@@ -0,0 +1,24 @@
+package com.payment.gateway.services;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Generates public identifiers such as order_XXXX... and pay_XXXX...
+ * The default is {@link TimeOrderedIdGenerator}; to replace it, declare
+ * another bean of this type as {@code @Primary}.
+ */
+public interface IdGenerator {
+
+    /** Returns prefix + a body of at most 58 characters (ids are VARCHAR(64)). */
+    String nextId(String prefix);
+
+    /**
+     * When the id was generated, if this generator produced it; used to
+     * bound created_at so lookups by id touch one payments partition.
+     * Empty for ids it cannot date, such as ones from an older format.
+     */
+    default Optional<Instant> timestampOf(String id) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,283 @@
+package com.payment.gateway.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.payment.gateway.models.IdempotencyRecord;
+import com.payment.gateway.repositories.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling for create endpoints.
+ *
+ * Lookup order: in-process LRU of recent responses, then requests with the
+ * same key already running on this node (callers wait for that execution),
+ * then the idempotency_keys table. The key is reserved there with
+ * INSERT ... ON CONFLICT DO NOTHING before the action runs, so across all
+ * nodes only the request that inserted the row runs the action. Everyone
+ * else polls the row until its response is filled in, and replays it.
+ *
+ * 5xx responses and exceptions give the reservation back, so a later retry
+ * runs again; they are shared with waiters on this node but not stored. A
+ * reservation older than IDEMPOTENCY_PENDING_TIMEOUT_MS is treated as left
+ * behind by a node that stopped, and the next request takes it over.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long MIN_POLL_MS = 20;
+    private static final long MAX_POLL_MS = 500;
+
+    private record StoredResponse(String requestHash, int status, String body) { }
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, StoredResponse> recent;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final long waitTimeoutMs;
+    private final Duration pendingTimeout;
+    private final Duration retention;
+
+    public IdempotencyService(
+            IdempotencyRecordRepository recordRepository,
+            ObjectMapper objectMapper,
+            @Value("${IDEMPOTENCY_CACHE_MAX_SIZE:10000}") long cacheMaxSize,
+            @Value("${IDEMPOTENCY_TTL_HOURS:24}") long ttlHours,
+            @Value("${IDEMPOTENCY_WAIT_TIMEOUT_MS:30000}") long waitTimeoutMs,
+            @Value("${IDEMPOTENCY_PENDING_TIMEOUT_MS:300000}") long pendingTimeoutMs
+    ) {
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        this.retention = Duration.ofHours(ttlHours);
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.pendingTimeout = Duration.ofMillis(pendingTimeoutMs);
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(retention)
+                .recordStats()
+                .build();
+    }
+
+    public ResponseEntity<?> execute(String scope, String key, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null) {
+            return action.get();
+        }
+
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(error(
+                    "BAD_REQUEST_ERROR",
+                    "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters"
+            ));
+        }
+
+        String id = sha256(scope + "\n" + key);
+        String requestHash = sha256(toJson(request));
+
+        StoredResponse cached = recent.getIfPresent(id);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+
+        CompletableFuture<StoredResponse> execution = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(id, execution);
+        if (running != null) {
+            return awaitAndReplay(running, requestHash);
+        }
+
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMs);
+            long pollMs = MIN_POLL_MS;
+            while (true) {
+                Instant now = Instant.now();
+                if (recordRepository.reserve(id, scope, key, requestHash, now) == 1) {
+                    return runAndStore(id, requestHash, action, execution);
+                }
+
+                IdempotencyRecord record = recordRepository.findById(id).orElse(null);
+                if (record == null) {
+                    // The owner gave the key back in between; try to reserve it again
+                    continue;
+                }
+
+                if (record.getResponseStatus() != null) {
+                    StoredResponse stored = toStoredResponse(record);
+                    recent.put(id, stored);
+                    execution.complete(stored);
+                    return replay(stored, requestHash);
+                }
+
+                if (!record.getRequestHash().equals(requestHash)) {
+                    execution.complete(null);
+                    return keyReused();
+                }
+
+                Instant staleBefore = now.minus(pendingTimeout);
+                if (record.getCreatedAt().isBefore(staleBefore)
+                        && recordRepository.takeOver(id, requestHash, now, staleBefore) == 1) {
+                    log.warn("Taking over idempotency key {} reserved at {} and never completed",
+                            id, record.getCreatedAt());
+                    return runAndStore(id, requestHash, action, execution);
+                }
+
+                // Another node is running this request
+                if (System.nanoTime() >= deadline) {
+                    execution.complete(null);
+                    return inProgress();
+                }
+                sleep(pollMs);
+                pollMs = Math.min(pollMs * 2, MAX_POLL_MS);
+            }
+        } catch (RuntimeException e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, execution);
+        }
+    }
+
+    private ResponseEntity<?> runAndStore(String id, String requestHash,
+                                          Supplier<ResponseEntity<?>> action,
+                                          CompletableFuture<StoredResponse> execution) {
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            recordRepository.release(id);
+            throw e;
+        }
+
+        StoredResponse stored = new StoredResponse(requestHash, response.getStatusCode().value(),
+                toJson(response.getBody()));
+        if (response.getStatusCode().is5xxServerError()) {
+            recordRepository.release(id);
+        } else {
+            if (recordRepository.complete(id, stored.status(), stored.body()) == 0) {
+                log.warn("Idempotency key {} was taken over before its response was stored", id);
+            }
+            recent.put(id, stored);
+        }
+
+        execution.complete(stored);
+        return response;
+    }
+
+    // ---------------- RETENTION ----------------
+    @Scheduled(fixedDelayString = "${IDEMPOTENCY_PURGE_INTERVAL_MS:3600000}")
+    public void purgeExpired() {
+        int deleted = recordRepository.deleteCreatedBefore(Instant.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    public Cache<String, ?> getRecentCache() {
+        return recent;
+    }
+
+    // ---------------- HELPERS ----------------
+
+    private static StoredResponse toStoredResponse(IdempotencyRecord record) {
+        return new StoredResponse(record.getRequestHash(), record.getResponseStatus(), record.getResponseBody());
+    }
+
+    private ResponseEntity<?> awaitAndReplay(CompletableFuture<StoredResponse> running, String requestHash) {
+        try {
+            StoredResponse stored = running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            // null: the execution here was itself still waiting on another node
+            return stored == null ? inProgress() : replay(stored, requestHash);
+        } catch (TimeoutException e) {
+            return inProgress();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for idempotent request", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            return keyReused();
+        }
+
+        return ResponseEntity.status(stored.status())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotent-Replayed", "true")
+                .body(stored.body());
+    }
+
+    private ResponseEntity<?> keyReused() {
+        return ResponseEntity.status(422).body(error(
+                "IDEMPOTENCY_KEY_REUSED",
+                "Idempotency-Key was already used with a different request"
+        ));
+    }
+
+    private ResponseEntity<?> inProgress() {
+        return ResponseEntity.status(409).body(error(
+                "IDEMPOTENCY_KEY_IN_PROGRESS",
+                "A request with this Idempotency-Key is still being processed"
+        ));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for idempotent request", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Response is not serializable", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private Map<String, Object> error(String code, String description) {
+        return Map.of(
+                "error", Map.of(
+                        "code", code,
+                        "description", description
+                )
+        );
+    }
+}
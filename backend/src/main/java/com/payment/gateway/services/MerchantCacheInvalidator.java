@@ -0,0 +1,56 @@
+package com.payment.gateway.services;
+
+import com.payment.gateway.models.Merchant;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * JPA entity listener that evicts cached credentials whenever a merchant row
+ * is inserted, updated (deactivation, secret or key rotation) or deleted.
+ *
+ * The callbacks run at flush, before the change is committed. Evicting then
+ * would let a concurrent miss load the old row and cache it again, so the
+ * eviction waits for the commit.
+ */
+@Component
+public class MerchantCacheInvalidator {
+
+    private final MerchantCredentialCache credentialCache;
+    private final CredentialVerifier credentialVerifier;
+
+    public MerchantCacheInvalidator(MerchantCredentialCache credentialCache,
+                                    CredentialVerifier credentialVerifier) {
+        this.credentialCache = credentialCache;
+        this.credentialVerifier = credentialVerifier;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Merchant merchant) {
+        UUID merchantId = merchant.getId();
+        String apiKey = merchant.getApiKey();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(merchantId, apiKey);
+                }
+            });
+        } else {
+            invalidate(merchantId, apiKey);
+        }
+    }
+
+    private void invalidate(UUID merchantId, String apiKey) {
+        credentialCache.invalidateMerchant(merchantId, apiKey);
+        credentialVerifier.invalidate(apiKey);
+    }
+}
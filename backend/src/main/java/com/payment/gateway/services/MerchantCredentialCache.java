@@ -0,0 +1,102 @@
+package com.payment.gateway.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.payment.gateway.models.Merchant;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * In-process cache of merchants keyed by API key.
+ *
+ * Unknown keys live in a separate, short-lived negative cache so a burst of
+ * guessed keys cannot evict the merchants that are actually in use. Misses
+ * are loaded outside the caches, once per key (see SingleFlightLoader).
+ */
+@Component
+public class MerchantCredentialCache {
+
+    private final Cache<String, Merchant> merchants;
+    private final Cache<String, Boolean> unknownKeys;
+    private final SingleFlightLoader<String, Optional<Merchant>> loads = new SingleFlightLoader<>();
+
+    public MerchantCredentialCache(
+            @Value("${MERCHANT_CACHE_MAX_SIZE:10000}") long maxSize,
+            @Value("${MERCHANT_CACHE_TTL_SECONDS:300}") long ttlSeconds,
+            @Value("${MERCHANT_CACHE_NEGATIVE_MAX_SIZE:100000}") long negativeMaxSize,
+            @Value("${MERCHANT_CACHE_NEGATIVE_TTL_SECONDS:30}") long negativeTtlSeconds
+    ) {
+        this.merchants = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.unknownKeys = Caffeine.newBuilder()
+                .maximumSize(negativeMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(negativeTtlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the merchant for an API key, calling the loader at most once per
+     * key even when many requests miss at the same time.
+     */
+    public Optional<Merchant> get(String apiKey, Function<String, Optional<Merchant>> loader) {
+        Merchant cached = merchants.getIfPresent(apiKey);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        if (unknownKeys.getIfPresent(apiKey) != null) {
+            return Optional.empty();
+        }
+
+        return loads.load(apiKey, loader, (key, loaded) -> {
+            if (loaded.isPresent()) {
+                merchants.put(key, loaded.get());
+            } else {
+                unknownKeys.put(key, Boolean.TRUE);
+            }
+        });
+    }
+
+    // ---------------- INVALIDATION ----------------
+
+    public void invalidate(String apiKey) {
+        loads.forget(apiKey);
+        merchants.invalidate(apiKey);
+        unknownKeys.invalidate(apiKey);
+    }
+
+    /**
+     * Drops every entry of a merchant, including one cached under an API key
+     * that has since been rotated.
+     */
+    public void invalidateMerchant(UUID merchantId, String currentApiKey) {
+        if (currentApiKey != null) {
+            invalidate(currentApiKey);
+        }
+        merchants.asMap().values().removeIf(m -> m.getId().equals(merchantId));
+    }
+
+    public void invalidateAll() {
+        loads.forgetAll();
+        merchants.invalidateAll();
+        unknownKeys.invalidateAll();
+    }
+
+    // ---------------- STATS ----------------
+
+    public Cache<String, Merchant> getMerchantCache() { return merchants; }
+    public Cache<String, Boolean> getUnknownKeyCache() { return unknownKeys; }
+
+    public CacheStats getStats() { return merchants.stats(); }
+    public CacheStats getNegativeStats() { return unknownKeys.stats(); }
+}
@@ -0,0 +1,26 @@
+package com.payment.gateway.services;
+
+import com.payment.gateway.models.Order;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that evicts the cached snapshot of an order whenever
+ * the row is updated or deleted through JPA.
+ */
+@Component
+public class OrderCacheInvalidator {
+
+    private final OrderSnapshotCache orderSnapshotCache;
+
+    public OrderCacheInvalidator(OrderSnapshotCache orderSnapshotCache) {
+        this.orderSnapshotCache = orderSnapshotCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(Order order) {
+        orderSnapshotCache.invalidate(order.getId());
+    }
+}
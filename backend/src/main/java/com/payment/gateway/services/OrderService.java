@@ -2,19 +2,51 @@ package com.payment.gateway.services;
 
 import com.payment.gateway.models.Merchant;
 import com.payment.gateway.models.Order;
+import com.payment.gateway.models.OrderSnapshot;
 import com.payment.gateway.repositories.OrderRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Random;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 
 @Service
 public class OrderService {
 
+    private static final Logger log = LoggerFactory.getLogger(OrderService.class);
+
+    /** Validated input of one order in a batch. */
+    public record OrderDraft(Integer amount, String currency, String receipt, String notes) { }
+
     private final OrderRepository orderRepository;
-    private final Random random = new Random();
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final IdGenerator idGenerator;
+    private final OrderSnapshotCache orderSnapshotCache;
+    private final int batchChunkSize;
 
-    public OrderService(OrderRepository orderRepository) {
+    public OrderService(OrderRepository orderRepository,
+                        IdGenerator idGenerator,
+                        OrderSnapshotCache orderSnapshotCache,
+                        EntityManager entityManager,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchChunkSize) {
         this.orderRepository = orderRepository;
+        this.idGenerator = idGenerator;
+        this.orderSnapshotCache = orderSnapshotCache;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchChunkSize = batchChunkSize;
     }
 
     public Order createOrder(
@@ -41,24 +73,123 @@ public class OrderService {
 }
 
 
+    // ---------------- BATCH CREATE ----------------
+
+    /**
+     * Inserts orders with JDBC batching, one transaction per chunk of
+     * hibernate.jdbc.batch_size rows. persist() is used instead of save()
+     * because ids are assigned up front and save() would merge (SELECT) each
+     * row first. Null drafts (items that failed validation) are skipped. A
+     * failing chunk is retried one row per transaction, so only the rows
+     * that fail again are left null in the result.
+     */
+    public List<Order> createOrders(Merchant merchant, List<OrderDraft> drafts) {
+        Order[] created = new Order[drafts.size()];
+        String merchantId = merchant.getId().toString();
+
+        for (int start = 0; start < drafts.size(); start += batchChunkSize) {
+            int end = Math.min(start + batchChunkSize, drafts.size());
+            List<Order> chunk = new ArrayList<>(end - start);
+
+            for (int i = start; i < end; i++) {
+                OrderDraft draft = drafts.get(i);
+                if (draft == null) {
+                    chunk.add(null);
+                    continue;
+                }
+
+                Instant now = Instant.now();
+                Order order = new Order();
+                order.setId(generateOrderId());
+                order.setMerchantId(merchantId);
+                order.setAmount(draft.amount());
+                order.setCurrency(draft.currency());
+                order.setReceipt(draft.receipt());
+                order.setNotes(draft.notes());
+                order.setStatus("created");
+                order.setCreatedAt(now);
+                order.setUpdatedAt(now);
+                chunk.add(order);
+            }
+
+            try {
+                insert(chunk);
+                for (int i = start; i < end; i++) {
+                    created[i] = chunk.get(i - start);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Order batch chunk [{}, {}) failed, retrying row by row", start, end, e);
+                for (int i = start; i < end; i++) {
+                    Order order = chunk.get(i - start);
+                    if (order == null) continue;
+                    try {
+                        insert(List.of(order));
+                        created[i] = order;
+                    } catch (RuntimeException rowError) {
+                        log.warn("Order batch item {} failed", i, rowError);
+                    }
+                }
+            }
+        }
+
+        return Arrays.asList(created);
+    }
+
+    private void insert(List<Order> orders) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Order order : orders) {
+                if (order != null) entityManager.persist(order);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
     public Order getOrder(String orderId, String merchantId) {
         return orderRepository
                 .findByIdAndMerchantId(orderId, merchantId)
                 .orElseThrow(() -> new RuntimeException("NOT_FOUND"));
     }
-    public Order getOrderPublic(String orderId) {
-    return orderRepository
-            .findById(orderId)
-            .orElseThrow(() -> new RuntimeException("NOT_FOUND"));
-}
+    // ---------------- PUBLIC (CACHED SNAPSHOT) ----------------
+    public OrderSnapshot getOrderPublic(String orderId) {
+        return findOrderSnapshot(orderId)
+                .orElseThrow(() -> new RuntimeException("NOT_FOUND"));
+    }
 
+    public Optional<OrderSnapshot> findOrderSnapshot(String orderId) {
+        return orderSnapshotCache.get(orderId,
+                id -> orderRepository.findById(id).map(OrderSnapshot::from));
+    }
 
-    private String generateOrderId() {
-        String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
-        StringBuilder sb = new StringBuilder("order_");
-        for (int i = 0; i < 16; i++) {
-            sb.append(chars.charAt(random.nextInt(chars.length())));
+    // ---------------- STATUS TRANSITIONS ----------------
+
+    /**
+     * Moves an order along created -> attempted -> paid (attempted -> created
+     * when the payment fails) with one conditional UPDATE, so concurrent
+     * checkouts race on the row instead of locking it. Returns false when
+     * the order was not in {@code from}. Inside a transaction, the cached
+     * snapshot is evicted after commit so it cannot be reloaded stale.
+     */
+    public boolean transition(String orderId, String from, String to) {
+        if (orderRepository.transition(orderId, from, to, Instant.now()) == 0) {
+            return false;
         }
-        return sb.toString();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    orderSnapshotCache.invalidate(orderId);
+                }
+            });
+        } else {
+            orderSnapshotCache.invalidate(orderId);
+        }
+        return true;
+    }
+
+
+    private String generateOrderId() {
+        return idGenerator.nextId("order_");
     }
 }
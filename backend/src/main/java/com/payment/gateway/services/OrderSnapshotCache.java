@@ -0,0 +1,57 @@
+package com.payment.gateway.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.payment.gateway.models.OrderSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of order snapshots for the public checkout endpoints.
+ *
+ * Concurrent misses on the same order id wait for a single loader call, so a
+ * burst of checkout page loads for a hot order costs one DB read. The load
+ * runs outside the cache (see SingleFlightLoader). Entries are
+ * evicted when the order changes (OrderCacheInvalidator) and expire after
+ * the TTL as a backstop.
+ */
+@Component
+public class OrderSnapshotCache {
+
+    private final Cache<String, OrderSnapshot> snapshots;
+    private final SingleFlightLoader<String, Optional<OrderSnapshot>> loads = new SingleFlightLoader<>();
+
+    public OrderSnapshotCache(
+            @Value("${ORDER_CACHE_MAX_SIZE:10000}") long maxSize,
+            @Value("${ORDER_CACHE_TTL_SECONDS:60}") long ttlSeconds
+    ) {
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public Optional<OrderSnapshot> get(String orderId, Function<String, Optional<OrderSnapshot>> loader) {
+        OrderSnapshot cached = snapshots.getIfPresent(orderId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return loads.load(orderId, loader,
+                (id, loaded) -> loaded.ifPresent(snapshot -> snapshots.put(id, snapshot)));
+    }
+
+    public void invalidate(String orderId) {
+        loads.forget(orderId);
+        snapshots.invalidate(orderId);
+    }
+
+    public Cache<String, OrderSnapshot> getCache() { return snapshots; }
+
+    public CacheStats getStats() { return snapshots.stats(); }
+}
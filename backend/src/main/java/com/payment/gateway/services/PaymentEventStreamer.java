@@ -0,0 +1,101 @@
+package com.payment.gateway.services;
+
+import com.payment.gateway.models.Payment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Server-Sent Events stream of a single payment's status.
+ *
+ * The stream sends the current status on connect and the terminal status as
+ * soon as PaymentService publishes it, then closes. Connections that stay
+ * non-terminal are closed after the timeout (EventSource reconnects on its
+ * own) and the number of open streams per node is capped.
+ */
+@Service
+public class PaymentEventStreamer {
+
+    private final PaymentService paymentService;
+    private final PaymentStatusBus statusBus;
+
+    private final long timeoutMs;
+    private final int maxConnections;
+    private final AtomicInteger openConnections = new AtomicInteger();
+
+    public PaymentEventStreamer(
+            PaymentService paymentService,
+            PaymentStatusBus statusBus,
+            @Value("${PAYMENT_STREAM_TIMEOUT_MS:60000}") long timeoutMs,
+            @Value("${PAYMENT_STREAM_MAX_CONNECTIONS:10000}") int maxConnections
+    ) {
+        this.paymentService = paymentService;
+        this.statusBus = statusBus;
+        this.timeoutMs = timeoutMs;
+        this.maxConnections = maxConnections;
+    }
+
+    public SseEmitter open(String paymentId, Function<Payment, Object> view) {
+        if (openConnections.incrementAndGet() > maxConnections) {
+            openConnections.decrementAndGet();
+            throw new IllegalStateException("TOO_MANY_STREAMS");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        AtomicBoolean closed = new AtomicBoolean();
+        AtomicReference<Runnable> unsubscribe = new AtomicReference<>(() -> { });
+
+        Runnable cleanup = () -> {
+            if (closed.compareAndSet(false, true)) {
+                unsubscribe.get().run();
+                openConnections.decrementAndGet();
+            }
+        };
+        emitter.onCompletion(cleanup);
+        emitter.onTimeout(() -> {
+            cleanup.run();
+            emitter.complete();
+        });
+        emitter.onError(e -> cleanup.run());
+
+        // Subscribe before reading the row so a transition in between is not lost
+        unsubscribe.set(statusBus.subscribe(paymentId, p -> send(emitter, p, view)));
+
+        Payment payment = paymentService.findPayment(paymentId).orElse(null);
+        if (payment == null) {
+            cleanup.run();
+            throw new RuntimeException("NOT_FOUND");
+        }
+
+        send(emitter, payment, view);
+        return emitter;
+    }
+
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    private void send(SseEmitter emitter, Payment payment, Function<Payment, Object> view) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name("status")
+                    .data(view.apply(payment)));
+
+            if (isTerminal(payment.getStatus())) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private boolean isTerminal(String status) {
+        return "success".equals(status) || "failed".equals(status);
+    }
+}
@@ -0,0 +1,150 @@
+package com.payment.gateway.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Payment lifecycle meters.
+ *
+ * Every timer and counter is registered in the constructor and kept in
+ * arrays indexed by phase / method / network / outcome, so recording on
+ * the request and worker paths is an array lookup plus an atomic update,
+ * with no tag lookups or allocation. Callers pass System.nanoTime()
+ * start values instead of Timer.Sample objects for the same reason.
+ */
+@Component
+public class PaymentMetrics {
+
+    public enum Phase {
+        VALIDATION("validation"),
+        INITIAL_SAVE("initial_save"),
+        PROCESSING("processing"),
+        FINAL_SAVE("final_save");
+
+        private final String tag;
+
+        Phase(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final String[] METHODS = {"upi", "card"};
+    private static final String[] NETWORKS = {"none", "visa", "mastercard", "amex", "rupay", "unknown"};
+    private static final String[] OUTCOMES = {"success", "failed"};
+    private static final String[] REJECTIONS =
+            {"INVALID_VPA", "INVALID_CARD", "EXPIRED_CARD", "PROCESSING_QUEUE_FULL", "ORDER_NOT_PAYABLE",
+             "NO_PROCESSOR", "PROCESSOR_UNAVAILABLE", "PROCESSOR_BUSY"};
+
+    private final Timer[] phaseTimers;
+    private final Counter[][][] outcomes;
+    private final Counter[] rejections;
+    private final Timer authSuccess;
+    private final Timer authFailure;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public PaymentMetrics(MeterRegistry registry) {
+        Phase[] phases = Phase.values();
+        this.phaseTimers = new Timer[phases.length];
+        for (Phase phase : phases) {
+            phaseTimers[phase.ordinal()] = Timer.builder("payment.phase")
+                    .description("Time spent in each phase of a payment")
+                    .tag("phase", phase.tag)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        this.outcomes = new Counter[METHODS.length][NETWORKS.length][OUTCOMES.length];
+        for (int m = 0; m < METHODS.length; m++) {
+            for (int n = 0; n < NETWORKS.length; n++) {
+                // UPI payments have no card network
+                if ((m == 0) != (n == 0)) {
+                    continue;
+                }
+                for (int o = 0; o < OUTCOMES.length; o++) {
+                    outcomes[m][n][o] = Counter.builder("payments.completed")
+                            .description("Payments that reached a final status")
+                            .tag("method", METHODS[m])
+                            .tag("network", NETWORKS[n])
+                            .tag("outcome", OUTCOMES[o])
+                            .register(registry);
+                }
+            }
+        }
+
+        this.rejections = new Counter[REJECTIONS.length];
+        for (int i = 0; i < REJECTIONS.length; i++) {
+            rejections[i] = Counter.builder("payments.rejected")
+                    .description("Payment requests rejected before a payment row was written")
+                    .tag("reason", REJECTIONS[i])
+                    .register(registry);
+        }
+
+        this.authSuccess = authTimer(registry, "success");
+        this.authFailure = authTimer(registry, "failure");
+
+        Gauge.builder("payments.in_flight", inFlight, AtomicInteger::get)
+                .description("Payments saved in processing state and not yet finalised")
+                .register(registry);
+    }
+
+    private static Timer authTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("auth.lookup")
+                .description("API key lookup and secret verification")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    // ---------------- RECORDING ----------------
+
+    public void recordPhase(Phase phase, long startNanos) {
+        phaseTimers[phase.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordOutcome(String method, String network, boolean success) {
+        int m = "card".equals(method) ? 1 : 0;
+        int n = m == 0 ? 0 : networkIndex(network);
+        outcomes[m][n][success ? 0 : 1].increment();
+    }
+
+    public void recordRejection(String reason) {
+        for (int i = 0; i < REJECTIONS.length; i++) {
+            if (REJECTIONS[i].equals(reason)) {
+                rejections[i].increment();
+                return;
+            }
+        }
+    }
+
+    public void recordAuth(long startNanos, boolean success) {
+        (success ? authSuccess : authFailure).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void processingStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    public void processingFinished() {
+        inFlight.decrementAndGet();
+    }
+
+    private static int networkIndex(String network) {
+        if (network == null) {
+            return NETWORKS.length - 1;
+        }
+        switch (network) {
+            case "visa": return 1;
+            case "mastercard": return 2;
+            case "amex": return 3;
+            case "rupay": return 4;
+            default: return NETWORKS.length - 1;
+        }
+    }
+}
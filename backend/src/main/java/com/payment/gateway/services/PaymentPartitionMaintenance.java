@@ -0,0 +1,212 @@
+package com.payment.gateway.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the monthly partitions of the payments table in place.
+ *
+ * Upcoming months are created as plain tables with a CHECK constraint that
+ * matches the partition bounds and then attached, so ATTACH only takes a
+ * SHARE UPDATE EXCLUSIVE lock on payments and skips the validation scan.
+ * Partitions older than the retention window are removed with
+ * DETACH PARTITION ... CONCURRENTLY, which does not block reads or writes,
+ * and then either kept as standalone tables for archiving or dropped.
+ * Retention is off (every month kept) unless PAYMENT_RETENTION_MONTHS is set.
+ *
+ * All DDL runs with a short lock_timeout, so a job that cannot get its lock
+ * gives up and retries on the next run instead of queueing traffic behind
+ * it. A session advisory lock keeps multiple nodes from running at once.
+ */
+@Component
+public class PaymentPartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentPartitionMaintenance.class);
+
+    private static final long ADVISORY_LOCK_KEY = 0x7061796d656e7473L; // "payments"
+    private static final String PREFIX = "payments_p";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock = Clock.systemUTC();
+
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final boolean dropExpired;
+    private final String lockTimeout;
+
+    public PaymentPartitionMaintenance(
+            DataSource dataSource,
+            @Value("${PAYMENT_PARTITION_MONTHS_AHEAD:3}") int monthsAhead,
+            @Value("${PAYMENT_RETENTION_MONTHS:0}") int retentionMonths,
+            @Value("${PAYMENT_RETENTION_ACTION:detach}") String retentionAction,
+            @Value("${PAYMENT_PARTITION_LOCK_TIMEOUT_MS:5000}") long lockTimeoutMs
+    ) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.dropExpired = "drop".equalsIgnoreCase(retentionAction);
+        this.lockTimeout = lockTimeoutMs + "ms";
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${PAYMENT_PARTITION_CRON:0 15 3 * * *}", zone = "UTC")
+    public void maintain() {
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                if (!tryLock(connection)) {
+                    log.debug("Partition maintenance already running on another node");
+                    return null;
+                }
+                try {
+                    execute(connection, "SET lock_timeout = '" + lockTimeout + "'");
+                    createUpcoming(connection);
+                    if (retentionMonths > 0) {
+                        removeExpired(connection);
+                    }
+                } finally {
+                    execute(connection, "RESET lock_timeout");
+                    unlock(connection);
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.error("Payment partition maintenance failed", e);
+        }
+    }
+
+    // ---------------- CREATE ----------------
+
+    private void createUpcoming(Connection connection) throws SQLException {
+        List<String> existing = partitions(connection, false);
+        YearMonth current = YearMonth.now(clock);
+
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            String name = PREFIX + month.format(SUFFIX);
+            if (existing.contains(name)) {
+                continue;
+            }
+
+            String from = bound(month);
+            String to = bound(month.plusMonths(1));
+            String check = name + "_bounds";
+
+            execute(connection, "CREATE TABLE IF NOT EXISTS " + name
+                    + " (LIKE payments INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            execute(connection, "ALTER TABLE " + name + " DROP CONSTRAINT IF EXISTS " + check);
+            execute(connection, "ALTER TABLE " + name + " ADD CONSTRAINT " + check
+                    + " CHECK (created_at >= '" + from + "' AND created_at < '" + to + "')");
+            execute(connection, "ALTER TABLE payments ATTACH PARTITION " + name
+                    + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            execute(connection, "ALTER TABLE " + name + " DROP CONSTRAINT " + check);
+
+            log.info("Created payments partition {} [{}, {})", name, from, to);
+        }
+    }
+
+    // ---------------- RETENTION ----------------
+
+    private void removeExpired(Connection connection) throws SQLException {
+        // An interrupted concurrent detach leaves the partition pending
+        for (String name : partitions(connection, true)) {
+            execute(connection, "ALTER TABLE payments DETACH PARTITION " + name + " FINALIZE");
+            log.info("Finalized pending detach of {}", name);
+        }
+
+        YearMonth oldestKept = YearMonth.now(clock).minusMonths(retentionMonths);
+
+        for (String name : partitions(connection, false)) {
+            YearMonth month = monthOf(name);
+            if (month == null || !month.isBefore(oldestKept)) {
+                continue;
+            }
+
+            // CONCURRENTLY cannot run inside a transaction block; the
+            // connection is in autocommit mode here
+            execute(connection, "ALTER TABLE payments DETACH PARTITION " + name + " CONCURRENTLY");
+            if (dropExpired) {
+                execute(connection, "DROP TABLE " + name);
+                log.info("Dropped expired payments partition {}", name);
+            } else {
+                log.info("Detached expired payments partition {}; archive and drop it when done", name);
+            }
+        }
+    }
+
+    // ---------------- HELPERS ----------------
+
+    private List<String> partitions(Connection connection, boolean detachPending) throws SQLException {
+        String sql = "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = 'payments'::regclass AND i.inhdetachpending = ? ORDER BY c.relname";
+        List<String> names = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setBoolean(1, detachPending);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    names.add(rs.getString(1));
+                }
+            }
+        }
+        return names;
+    }
+
+    private static YearMonth monthOf(String partition) {
+        if (!partition.startsWith(PREFIX) || partition.length() != PREFIX.length() + 6) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(PREFIX.length()), SUFFIX);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String bound(YearMonth month) {
+        return month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC).toString();
+    }
+
+    private boolean tryLock(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT pg_try_advisory_lock(" + ADVISORY_LOCK_KEY + ")")) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    private void unlock(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT pg_advisory_unlock(" + ADVISORY_LOCK_KEY + ")")) {
+            rs.next();
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.payment.gateway.services;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Bounded executor that finishes payments off the request thread.
+ *
+ * Admission is controlled by a semaphore sized to workers + queue capacity,
+ * so a slot is reserved before the payment row is written and the executor
+ * itself never has to reject a task.
+ *
+ * Tasks are asynchronous processor calls. Workers only start calls and run
+ * completion handlers (which persist the result), on separate executors so
+ * a handler never queues behind a start. How many calls a processor gets
+ * at once is limited per payment method by the bulkheads in
+ * PaymentProcessorRouter, so a slow processor for one method cannot hold
+ * workers that the other method needs.
+ *
+ * In virtual-thread mode every task and handler gets its own virtual thread,
+ * so queued payments are parked virtual threads instead of entries in a
+ * pool queue.
+ */
+@Component
+public class PaymentProcessingEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentProcessingEngine.class);
+
+    private final int workers;
+    private final int queueCapacity;
+    private final boolean blockWhenFull;
+    private final long enqueueTimeoutMs;
+
+    private final boolean virtualThreads;
+
+    private final Semaphore slots;
+    private final ExecutorService executor;
+    private final ExecutorService completions;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public PaymentProcessingEngine(
+            @Value("${PROCESSING_WORKERS:16}") int workers,
+            @Value("${PROCESSING_QUEUE_CAPACITY:1000}") int queueCapacity,
+            @Value("${PROCESSING_QUEUE_POLICY:reject}") String queuePolicy,
+            @Value("${PROCESSING_ENQUEUE_TIMEOUT_MS:2000}") long enqueueTimeoutMs,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.blockWhenFull = "block".equalsIgnoreCase(queuePolicy);
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+        this.virtualThreads = virtualThreads;
+        this.slots = new Semaphore(workers + queueCapacity);
+
+        if (virtualThreads) {
+            this.executor = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("payment-processing-", 1).factory());
+            this.completions = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("payment-completion-", 1).factory());
+        } else {
+            this.executor = fixedPool(workers, "payment-processing-");
+            this.completions = fixedPool(workers, "payment-completion-");
+        }
+    }
+
+    private static ExecutorService fixedPool(int threads, String namePrefix) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                threads,
+                threads,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, namePrefix + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+    }
+
+    // ---------------- ADMISSION ----------------
+
+    /**
+     * Reserves a processing slot. Throws IllegalStateException("PROCESSING_QUEUE_FULL")
+     * when the engine is saturated (immediately, or after the enqueue timeout
+     * when the queue policy is "block").
+     */
+    public void reserve() {
+        boolean acquired;
+        if (blockWhenFull) {
+            try {
+                acquired = slots.tryAcquire(enqueueTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+        } else {
+            acquired = slots.tryAcquire();
+        }
+
+        if (!acquired) {
+            rejected.incrementAndGet();
+            throw new IllegalStateException("PROCESSING_QUEUE_FULL");
+        }
+    }
+
+    /**
+     * Takes a slot if one is free, without waiting and without counting a
+     * rejection; used by the recovery sweep, which tries again on its next run.
+     */
+    public boolean tryReserve() {
+        return slots.tryAcquire();
+    }
+
+    /** Returns a slot taken by {@link #reserve()} or {@link #tryReserve()} that will not be used. */
+    public void release() {
+        slots.release();
+    }
+
+    /**
+     * Starts an asynchronous call on a slot previously taken by
+     * {@link #reserve()}. When the call's stage completes, {@code onComplete}
+     * receives the result or the failure (unwrapped from CompletionException).
+     */
+    public <T> void execute(Supplier<? extends CompletionStage<T>> call,
+                            BiConsumer<? super T, Throwable> onComplete) {
+        submitted.incrementAndGet();
+        queued.incrementAndGet();
+        executor.execute(() -> {
+            queued.decrementAndGet();
+            active.incrementAndGet();
+
+            CompletionStage<T> stage;
+            try {
+                stage = call.get();
+            } catch (RuntimeException e) {
+                stage = CompletableFuture.failedFuture(e);
+            }
+
+            stage.whenComplete((result, error) -> {
+                active.decrementAndGet();
+                try {
+                    completions.execute(() -> complete(onComplete, result, error));
+                } catch (RejectedExecutionException e) {
+                    // Shutting down: the payment stays in processing for the recovery sweep
+                    slots.release();
+                }
+            });
+        });
+    }
+
+    private <T> void complete(BiConsumer<? super T, Throwable> onComplete, T result, Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        try {
+            onComplete.accept(result, error);
+            completed.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            log.error("Payment processing task failed", e);
+        } finally {
+            slots.release();
+        }
+    }
+
+    // ---------------- STATS ----------------
+
+    public int getWorkers() { return workers; }
+    public int getQueueCapacity() { return queueCapacity; }
+    public boolean isVirtualThreads() { return virtualThreads; }
+    public int getActiveCount() { return active.get(); }
+    public int getQueueDepth() { return queued.get(); }
+    public int getAvailableSlots() { return slots.availablePermits(); }
+    public long getSubmittedCount() { return submitted.get(); }
+    public long getCompletedCount() { return completed.get(); }
+    public long getFailedCount() { return failed.get(); }
+    public long getRejectedCount() { return rejected.get(); }
+
+    // ---------------- SHUTDOWN ----------------
+
+    /**
+     * Payments still queued or awaiting the processor at shutdown stay in
+     * "processing" and are picked up again by the recovery sweep in
+     * PaymentService.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        completions.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+            if (!completions.awaitTermination(10, TimeUnit.SECONDS)) {
+                completions.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            completions.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
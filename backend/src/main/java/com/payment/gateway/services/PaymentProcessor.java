@@ -0,0 +1,18 @@
+package com.payment.gateway.services;
+
+import com.payment.gateway.models.Payment;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A payment backend. process() starts the authorisation and returns without
+ * blocking; the future completes with the processor's decision, or
+ * exceptionally when the processor could not be reached. PaymentService
+ * persists the outcome from the completion callback.
+ */
+public interface PaymentProcessor {
+
+    String name();
+
+    CompletableFuture<ProcessorResult> process(Payment payment);
+}
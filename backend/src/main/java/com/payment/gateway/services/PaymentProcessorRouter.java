@@ -0,0 +1,175 @@
+package com.payment.gateway.services;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Chooses the PaymentProcessor for a payment from its method and card
+ * network.
+ *
+ * PROCESSOR_ROUTES maps "method" or "method.network" to a processor name;
+ * the network-specific entry wins, e.g. "upi=upi,card=card,card.amex=amex".
+ *
+ * Processors are local simulators. "upi" and "card" are built in from
+ * UPI_SUCCESS_RATE, CARD_SUCCESS_RATE and PROCESSING_DELAY_MIN/MAX, or from
+ * TEST_PAYMENT_SUCCESS and TEST_PROCESSING_DELAY in TEST_MODE.
+ * PROCESSOR_SIMULATORS adds more or replaces the built-ins, as
+ * "name:key=value,...;name:..." (see SimulatedPaymentProcessor.Settings).
+ * Routes are resolved at startup, so routing a payment is a map lookup.
+ *
+ * Every route is guarded (see GuardedPaymentProcessor): calls for one method
+ * share that method's bulkhead from PROCESSOR_BULKHEADS, calls to one
+ * processor share its circuit breaker, and every call is bounded by
+ * PROCESSOR_TIMEOUT_MS.
+ */
+@Component
+public class PaymentProcessorRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentProcessorRouter.class);
+
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, PaymentProcessor> processors = new LinkedHashMap<>();
+    private final Map<String, ProcessorBulkhead> bulkheads = new LinkedHashMap<>();
+    private final Map<String, ProcessorCircuitBreaker> circuitBreakers = new LinkedHashMap<>();
+    private final Map<String, GuardedPaymentProcessor> guarded = new LinkedHashMap<>();
+    private final Map<String, GuardedPaymentProcessor> routes = new HashMap<>();
+
+    public PaymentProcessorRouter(
+            @Value("${PROCESSOR_ROUTES:upi=upi,card=card}") String routeSpec,
+            @Value("${PROCESSOR_SIMULATORS:}") String simulatorSpec,
+            @Value("${UPI_SUCCESS_RATE:0.90}") double upiSuccessRate,
+            @Value("${CARD_SUCCESS_RATE:0.95}") double cardSuccessRate,
+            @Value("${PROCESSING_DELAY_MIN:5000}") long delayMin,
+            @Value("${PROCESSING_DELAY_MAX:10000}") long delayMax,
+            @Value("${TEST_MODE:false}") boolean testMode,
+            @Value("${TEST_PAYMENT_SUCCESS:true}") boolean testPaymentSuccess,
+            @Value("${TEST_PROCESSING_DELAY:1000}") long testDelay,
+            @Value("${PROCESSOR_TIMEOUT_MS:30000}") long timeoutMs,
+            @Value("${PROCESSOR_BULKHEADS:upi=16,card=16}") String bulkheadSpec,
+            @Value("${PROCESSOR_BULKHEAD_QUEUE:400}") int bulkheadQueue,
+            @Value("${PROCESSOR_CB_FAILURE_RATE:0.5}") double breakerFailureRate,
+            @Value("${PROCESSOR_CB_WINDOW:50}") int breakerWindow,
+            @Value("${PROCESSOR_CB_MIN_CALLS:20}") int breakerMinCalls,
+            @Value("${PROCESSOR_CB_OPEN_MS:30000}") long breakerOpenMs,
+            @Value("${PROCESSOR_CB_HALF_OPEN_CALLS:5}") int breakerHalfOpenCalls
+    ) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "payment-processor-simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.scheduler = executor;
+
+        // ---- built-in simulators ----
+        if (testMode) {
+            double rate = testPaymentSuccess ? 1.0 : 0.0;
+            addSimulator("upi", SimulatedPaymentProcessor.Settings.uniform(rate, testDelay, testDelay));
+            addSimulator("card", SimulatedPaymentProcessor.Settings.uniform(rate, testDelay, testDelay));
+        } else {
+            addSimulator("upi", SimulatedPaymentProcessor.Settings.uniform(upiSuccessRate, delayMin, delayMax));
+            addSimulator("card", SimulatedPaymentProcessor.Settings.uniform(cardSuccessRate, delayMin, delayMax));
+        }
+
+        // ---- configured simulators ----
+        for (String definition : simulatorSpec.split(";")) {
+            if (definition.isBlank()) continue;
+            int colon = definition.indexOf(':');
+            String name = (colon < 0 ? definition : definition.substring(0, colon)).trim();
+            String settings = colon < 0 ? "" : definition.substring(colon + 1);
+            addSimulator(name, SimulatedPaymentProcessor.Settings.parse(settings));
+        }
+
+        // ---- bulkheads ----
+        for (String entry : bulkheadSpec.split(",")) {
+            if (entry.isBlank()) continue;
+            int eq = entry.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected method=limit in PROCESSOR_BULKHEADS: " + entry);
+            }
+            String method = entry.substring(0, eq).trim();
+            int limit = Integer.parseInt(entry.substring(eq + 1).trim());
+            bulkheads.put(method, new ProcessorBulkhead(method, limit, bulkheadQueue));
+        }
+
+        // ---- routes ----
+        for (String route : routeSpec.split(",")) {
+            if (route.isBlank()) continue;
+            int eq = route.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=processor in PROCESSOR_ROUTES: " + route);
+            }
+            String key = route.substring(0, eq).trim();
+            String name = route.substring(eq + 1).trim();
+            PaymentProcessor processor = processors.get(name);
+            if (processor == null) {
+                throw new IllegalArgumentException("PROCESSOR_ROUTES refers to unknown processor: " + name);
+            }
+            int dot = key.indexOf('.');
+            String method = dot < 0 ? key : key.substring(0, dot);
+            ProcessorBulkhead bulkhead = bulkheads.get(method);
+            if (bulkhead == null) {
+                throw new IllegalArgumentException("PROCESSOR_BULKHEADS has no limit for method: " + method);
+            }
+
+            ProcessorCircuitBreaker breaker = circuitBreakers.computeIfAbsent(name,
+                    n -> new ProcessorCircuitBreaker(n, breakerFailureRate, breakerWindow,
+                            breakerMinCalls, breakerOpenMs, breakerHalfOpenCalls));
+            routes.put(key, guarded.computeIfAbsent(method + ":" + name,
+                    k -> new GuardedPaymentProcessor(processor, bulkhead, breaker, timeoutMs)));
+        }
+
+        log.info("Payment processor routes: {}", routeSpec);
+    }
+
+    private void addSimulator(String name, SimulatedPaymentProcessor.Settings settings) {
+        processors.put(name, new SimulatedPaymentProcessor(name, settings, scheduler));
+    }
+
+    /**
+     * The processor for a payment. Throws IllegalStateException("NO_PROCESSOR")
+     * when no route covers the method.
+     */
+    public GuardedPaymentProcessor route(String method, String network) {
+        GuardedPaymentProcessor processor = network == null ? null : routes.get(method + "." + network);
+        if (processor == null) {
+            processor = routes.get(method);
+        }
+        if (processor == null) {
+            throw new IllegalStateException("NO_PROCESSOR");
+        }
+        return processor;
+    }
+
+    /** One entry per routed (method, processor) pair. */
+    public Collection<GuardedPaymentProcessor> getProcessors() {
+        return guarded.values();
+    }
+
+    public Collection<ProcessorBulkhead> getBulkheads() {
+        return bulkheads.values();
+    }
+
+    public Collection<ProcessorCircuitBreaker> getCircuitBreakers() {
+        return circuitBreakers.values();
+    }
+
+    /**
+     * Calls still waiting on the scheduler never complete; their payments
+     * stay in "processing" and are resumed by the recovery sweep.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
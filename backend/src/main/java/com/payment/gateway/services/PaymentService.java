@@ -1,53 +1,91 @@
 package com.payment.gateway.services;
 
-import com.payment.gateway.models.Order;
+import com.payment.gateway.models.OrderSnapshot;
 import com.payment.gateway.models.Payment;
+import com.payment.gateway.repositories.PaymentQueryRepository;
 import com.payment.gateway.repositories.PaymentRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Random;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 
 @Service
 public class PaymentService {
 
-    private final PaymentRepository paymentRepository;
-    private final ValidationService validationService;
-    private final Random random = new Random();
-
-    @Value("${UPI_SUCCESS_RATE:0.90}")
-    private double upiSuccessRate;
-
-    @Value("${CARD_SUCCESS_RATE:0.95}")
-    private double cardSuccessRate;
+    private static final Logger log = LoggerFactory.getLogger(PaymentService.class);
 
-    @Value("${PROCESSING_DELAY_MIN:5000}")
-    private int delayMin;
+    // Slack around the id's timestamp when bounding created_at in lookups
+    private static final Duration ID_CLOCK_SKEW = Duration.ofDays(1);
 
-    @Value("${PROCESSING_DELAY_MAX:10000}")
-    private int delayMax;
-
-    @Value("${TEST_MODE:false}")
-    private boolean testMode;
-
-    @Value("${TEST_PAYMENT_SUCCESS:true}")
-    private boolean testPaymentSuccess;
-
-    @Value("${TEST_PROCESSING_DELAY:1000}")
-    private int testDelay;
+    private final PaymentRepository paymentRepository;
+    private final EntityManager entityManager;
+    private final PaymentQueryRepository paymentQueryRepository;
+    private final OrderService orderService;
+    private final ValidationService validationService;
+    private final PaymentProcessingEngine processingEngine;
+    private final PaymentProcessorRouter processorRouter;
+    private final PaymentStatusBus statusBus;
+    private final IdGenerator idGenerator;
+    private final WebhookOutboxService webhookOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final PaymentMetrics metrics;
+    private final Semaphore exportPermits;
+    private final Duration recoveryStaleAfter;
+    private final int recoveryBatchSize;
 
     public PaymentService(PaymentRepository paymentRepository,
-                          ValidationService validationService) {
+                          EntityManager entityManager,
+                          PaymentQueryRepository paymentQueryRepository,
+                          OrderService orderService,
+                          ValidationService validationService,
+                          IdGenerator idGenerator,
+                          PaymentProcessingEngine processingEngine,
+                          PaymentProcessorRouter processorRouter,
+                          PaymentStatusBus statusBus,
+                          WebhookOutboxService webhookOutbox,
+                          PlatformTransactionManager transactionManager,
+                          PaymentMetrics metrics,
+                          @Value("${EXPORT_MAX_CONCURRENT:4}") int maxConcurrentExports,
+                          @Value("${PAYMENT_RECOVERY_STALE_MS:300000}") long recoveryStaleMs,
+                          @Value("${PAYMENT_RECOVERY_BATCH_SIZE:100}") int recoveryBatchSize) {
         this.paymentRepository = paymentRepository;
+        this.entityManager = entityManager;
+        this.paymentQueryRepository = paymentQueryRepository;
+        this.orderService = orderService;
         this.validationService = validationService;
+        this.idGenerator = idGenerator;
+        this.processingEngine = processingEngine;
+        this.processorRouter = processorRouter;
+        this.statusBus = statusBus;
+        this.webhookOutbox = webhookOutbox;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.metrics = metrics;
+        this.exportPermits = new Semaphore(maxConcurrentExports);
+        this.recoveryStaleAfter = Duration.ofMillis(recoveryStaleMs);
+        this.recoveryBatchSize = recoveryBatchSize;
     }
 
     // ---------------- CREATE PAYMENT ----------------
     public Payment createPayment(
-            Order order,
+            OrderSnapshot order,
             String method,
             String vpa,
             String cardNumber,
@@ -55,18 +93,28 @@ public class PaymentService {
             String expiryYear
     ) {
 
+        // Paid is final, so a snapshot saying so can be trusted without a write
+        if ("paid".equals(order.status())) {
+            metrics.recordRejection("ORDER_NOT_PAYABLE");
+            throw new IllegalStateException("ORDER_NOT_PAYABLE");
+        }
+
         Payment payment = new Payment();
         payment.setId(generatePaymentId());
-        payment.setOrderId(order.getId());
-        payment.setMerchantId(order.getMerchantId());
-        payment.setAmount(order.getAmount());
-        payment.setCurrency(order.getCurrency());
+        payment.setOrderId(order.id());
+        payment.setMerchantId(order.merchantId());
+        payment.setAmount(order.amount());
+        payment.setCurrency(order.currency());
         payment.setMethod(method);
         payment.setStatus("processing");
+        // Stored exactly (PostgreSQL keeps microseconds), so later updates can match on it
+        payment.setCreatedAt(Instant.now().truncatedTo(ChronoUnit.MICROS));
 
         // -------- METHOD-SPECIFIC VALIDATION --------
+        long validationStart = System.nanoTime();
         if ("upi".equals(method)) {
             if (!validationService.isValidVpa(vpa)) {
+                metrics.recordRejection("INVALID_VPA");
                 throw new IllegalArgumentException("INVALID_VPA");
             }
             payment.setVpa(vpa);
@@ -74,10 +122,12 @@ public class PaymentService {
 
         if ("card".equals(method)) {
             if (!validationService.isValidCardNumber(cardNumber)) {
+                metrics.recordRejection("INVALID_CARD");
                 throw new IllegalArgumentException("INVALID_CARD");
             }
 
             if (!validationService.isValidExpiry(expiryMonth, expiryYear)) {
+                metrics.recordRejection("EXPIRED_CARD");
                 throw new IllegalArgumentException("EXPIRED_CARD");
             }
 
@@ -86,68 +136,292 @@ public class PaymentService {
             payment.setCardLast4(cardNumber.substring(cardNumber.length() - 4));
         }
 
-        // Save immediately in PROCESSING state
-        paymentRepository.save(payment);
+        metrics.recordPhase(PaymentMetrics.Phase.VALIDATION, validationStart);
+
+        // Reserve the processor (circuit breaker, method bulkhead) and a
+        // processing slot before persisting, so a degraded processor or a
+        // saturated engine rejects the request instead of leaving an
+        // orphaned PROCESSING row
+        GuardedPaymentProcessor processor;
+        long permit;
+        try {
+            processor = processorRouter.route(method, payment.getCardNetwork());
+            permit = processor.reserve();
+        } catch (IllegalStateException e) {
+            metrics.recordRejection(e.getMessage());
+            throw e;
+        }
+
+        try {
+            processingEngine.reserve();
+        } catch (IllegalStateException e) {
+            processor.release(permit);
+            metrics.recordRejection(e.getMessage());
+            throw e;
+        }
+
+        // Claim the order (created -> attempted) and save the payment in
+        // PROCESSING state together; of concurrent checkouts for the same
+        // order only the first conditional UPDATE matches
+        long saveStart = System.nanoTime();
+        Payment saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                if (!orderService.transition(order.id(), "created", "attempted")) {
+                    throw new IllegalStateException("ORDER_NOT_PAYABLE");
+                }
+                // persist(), not save(): with an assigned id save() merges, and
+                // the merge SELECT by id alone probes every partition. The
+                // caller gets the persisted copy; `payment` stays detached
+                Payment persisted = copyOf(payment);
+                entityManager.persist(persisted);
+                return persisted;
+            });
+        } catch (RuntimeException e) {
+            processingEngine.release();
+            processor.release(permit);
+            if ("ORDER_NOT_PAYABLE".equals(e.getMessage())) {
+                metrics.recordRejection("ORDER_NOT_PAYABLE");
+            }
+            throw e;
+        }
+        metrics.recordPhase(PaymentMetrics.Phase.INITIAL_SAVE, saveStart);
+        metrics.processingStarted();
+
+        // ---------------- PROCESS PAYMENT (ASYNC) ----------------
+        // The completion handler owns `payment`; the caller gets the saved copy
+        processingEngine.execute(processorCall(() -> processor.process(payment, permit)),
+                (result, error) -> finishPayment(payment, result, error));
+
+        return saved;
+    }
 
-        // ---------------- PROCESS PAYMENT ----------------
-        simulateProcessing();
+    private Supplier<CompletableFuture<ProcessorResult>> processorCall(
+            Supplier<CompletableFuture<ProcessorResult>> call) {
+        return () -> {
+            long processingStart = System.nanoTime();
+            return call.get().whenComplete((result, error) ->
+                    metrics.recordPhase(PaymentMetrics.Phase.PROCESSING, processingStart));
+        };
+    }
 
-        boolean success = determineSuccess(method);
+    private void finishPayment(Payment payment, ProcessorResult result, Throwable error) {
+        if (error != null) {
+            log.warn("Processor call for payment {} failed: {}", payment.getId(), error.toString());
+            result = ProcessorResult.declined("PROCESSOR_ERROR", "Payment processor unavailable");
+        }
 
+        boolean success = result.approved();
         if (success) {
             payment.setStatus("success");
         } else {
             payment.setStatus("failed");
-            payment.setErrorCode("PAYMENT_FAILED");
-            payment.setErrorDescription("Payment processing failed");
+            payment.setErrorCode(result.errorCode());
+            payment.setErrorDescription(result.errorDescription());
         }
 
         payment.setUpdatedAt(Instant.now());
-        return paymentRepository.save(payment);
-    }
 
-    // ---------------- LIST PAYMENTS (NEW – REQUIRED) ----------------
-    public List<Payment> getPaymentsByMerchant(String merchantId) {
-        return paymentRepository.findByMerchantId(merchantId);
+        // Payment status, order status and webhook event commit together
+        // (transactional outbox). A failed payment releases the order so the
+        // customer can retry.
+        long saveStart = System.nanoTime();
+        boolean applied;
+        try {
+            applied = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                int updated = paymentRepository.updateResult(payment.getId(), payment.getCreatedAt(),
+                        payment.getStatus(), payment.getErrorCode(), payment.getErrorDescription(),
+                        payment.getUpdatedAt());
+                if (updated == 0) {
+                    // Already finished (by the recovery sweep or the node it
+                    // was taken from); that outcome stands
+                    return false;
+                }
+                if (!orderService.transition(payment.getOrderId(), "attempted", success ? "paid" : "created")) {
+                    log.warn("Order {} was not in attempted state when payment {} finished",
+                            payment.getOrderId(), payment.getId());
+                }
+                webhookOutbox.enqueuePaymentEvent(payment);
+                return true;
+            }));
+        } finally {
+            metrics.processingFinished();
+        }
+        metrics.recordPhase(PaymentMetrics.Phase.FINAL_SAVE, saveStart);
+        if (!applied) {
+            log.warn("Payment {} was no longer processing; discarding its {} result",
+                    payment.getId(), payment.getStatus());
+            return;
+        }
+        metrics.recordOutcome(payment.getMethod(), payment.getCardNetwork(), success);
+        statusBus.publish(payment);
+
+        log.debug("Payment {} finished with status {}", payment.getId(), payment.getStatus());
     }
 
-    // ---------------- PROCESSING LOGIC ----------------
-    private void simulateProcessing() {
-        try {
-            if (testMode) {
-                Thread.sleep(testDelay);
-            } else {
-                int delay = random.nextInt(delayMax - delayMin + 1) + delayMin;
-                Thread.sleep(delay);
+    // ---------------- RECOVERY ----------------
+
+    /**
+     * Resumes payments left in processing by a node that stopped or
+     * crashed. Only payments not updated for PAYMENT_RECOVERY_STALE_MS are
+     * taken, so payments a live node is still working on are left alone;
+     * the stale window must exceed PROCESSOR_TIMEOUT_MS plus the longest
+     * queueing in the engine and the bulkheads. Each payment is claimed
+     * with a conditional UPDATE, so only one node resumes it. Runs on the
+     * scheduler and never waits for capacity: when the engine or a
+     * bulkhead is full the rest waits for the next run.
+     */
+    @Scheduled(fixedDelayString = "${PAYMENT_RECOVERY_INTERVAL_MS:60000}")
+    public void recoverStalePayments() {
+        Instant staleBefore = Instant.now().minus(recoveryStaleAfter);
+        List<Payment> stale = paymentRepository.findStaleProcessing(staleBefore, Limit.of(recoveryBatchSize));
+
+        int resumed = 0;
+        for (Payment payment : stale) {
+            GuardedPaymentProcessor processor;
+            try {
+                processor = processorRouter.route(payment.getMethod(), payment.getCardNetwork());
+            } catch (IllegalStateException e) {
+                log.warn("No processor for payment {} ({}); leaving it in processing",
+                        payment.getId(), payment.getMethod());
+                continue;
+            }
+
+            if (!processingEngine.tryReserve()) {
+                break;
             }
-        } catch (InterruptedException ignored) {
+            if (!processor.tryReserveForRecovery()) {
+                processingEngine.release();
+                continue;
+            }
+
+            Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+            if (paymentRepository.claimStale(payment.getId(), payment.getCreatedAt(), staleBefore, now) == 0) {
+                processor.releaseForRecovery();
+                processingEngine.release();
+                continue;
+            }
+            payment.setUpdatedAt(now);
+
+            metrics.processingStarted();
+            processingEngine.execute(processorCall(() -> processor.process(payment)),
+                    (result, error) -> finishPayment(payment, result, error));
+            resumed++;
+        }
+
+        if (resumed > 0) {
+            log.info("Resumed {} payments left in processing state", resumed);
         }
     }
 
-    private boolean determineSuccess(String method) {
-        if (testMode) {
-            return testPaymentSuccess;
+    // ---------------- LOOKUP ----------------
+
+    /**
+     * Payment by id. Ids from the current generator carry their creation
+     * time, so the lookup bounds created_at and touches one or two
+     * partitions; older ids fall back to a lookup by id alone.
+     */
+    public Optional<Payment> findPayment(String paymentId) {
+        Optional<Instant> issuedAt = idGenerator.timestampOf(paymentId);
+        if (issuedAt.isPresent()) {
+            return paymentRepository.findByIdCreatedBetween(paymentId,
+                    issuedAt.get().minus(ID_CLOCK_SKEW), issuedAt.get().plus(ID_CLOCK_SKEW));
         }
+        return paymentRepository.findById(paymentId);
+    }
 
-        double chance = random.nextDouble();
-        if ("upi".equals(method)) {
-            return chance <= upiSuccessRate;
+    // ---------------- LIST PAYMENTS (KEYSET PAGINATION) ----------------
+    public List<Payment> findPaymentsPage(String merchantId,
+                                          PaymentQueryRepository.Filter filter,
+                                          PaymentQueryRepository.Cursor after,
+                                          int limit) {
+        return paymentQueryRepository.findPage(merchantId, filter, after, limit);
+    }
+
+    // ---------------- EXPORT ----------------
+
+    /**
+     * Claims one of the EXPORT_MAX_CONCURRENT export slots, one per
+     * connection in the export pool. Throws IllegalStateException when all
+     * are taken; the caller must releaseExport() once the export ends.
+     */
+    public void reserveExport() {
+        if (!exportPermits.tryAcquire()) {
+            throw new IllegalStateException("TOO_MANY_EXPORTS");
         }
+    }
 
-        if ("card".equals(method)) {
-            return chance <= cardSuccessRate;
+    public void releaseExport() {
+        exportPermits.release();
+    }
+
+    public void streamPaymentsExport(String merchantId,
+                                     PaymentQueryRepository.Filter filter,
+                                     Consumer<Payment> consumer) {
+        paymentQueryRepository.streamExport(merchantId, filter, consumer);
+    }
+
+    // ---------------- BULK STATUS ----------------
+
+    /**
+     * Statuses of many payments. As in findPayment, created_at is bounded by
+     * the creation times carried in the ids, widened by the clock skew, so
+     * only the partitions they span are scanned. Ids without a timestamp are
+     * looked up separately, by id alone.
+     */
+    public List<PaymentQueryRepository.StatusView> findStatuses(String merchantId, Collection<String> ids) {
+        List<String> timed = new ArrayList<>(ids.size());
+        List<String> untimed = new ArrayList<>();
+        Instant earliest = null;
+        Instant latest = null;
+
+        for (String id : ids) {
+            Optional<Instant> issuedAt = idGenerator.timestampOf(id);
+            if (issuedAt.isEmpty()) {
+                untimed.add(id);
+                continue;
+            }
+            timed.add(id);
+            if (earliest == null || issuedAt.get().isBefore(earliest)) earliest = issuedAt.get();
+            if (latest == null || issuedAt.get().isAfter(latest)) latest = issuedAt.get();
+        }
+
+        List<PaymentQueryRepository.StatusView> statuses = new ArrayList<>(ids.size());
+        if (!timed.isEmpty()) {
+            statuses.addAll(paymentQueryRepository.findStatusesCreatedBetween(merchantId, timed,
+                    earliest.minus(ID_CLOCK_SKEW), latest.plus(ID_CLOCK_SKEW)));
+        }
+        if (!untimed.isEmpty()) {
+            statuses.addAll(paymentQueryRepository.findStatuses(merchantId, untimed));
         }
+        return statuses;
+    }
+
+    public List<PaymentQueryRepository.StatusView> findStatusesByOrder(String merchantId, String orderId) {
+        return paymentQueryRepository.findStatusesByOrder(merchantId, orderId);
+    }
 
-        return false;
+    private static Payment copyOf(Payment p) {
+        Payment copy = new Payment();
+        copy.setId(p.getId());
+        copy.setOrderId(p.getOrderId());
+        copy.setMerchantId(p.getMerchantId());
+        copy.setAmount(p.getAmount());
+        copy.setCurrency(p.getCurrency());
+        copy.setMethod(p.getMethod());
+        copy.setStatus(p.getStatus());
+        copy.setVpa(p.getVpa());
+        copy.setCardNetwork(p.getCardNetwork());
+        copy.setCardLast4(p.getCardLast4());
+        copy.setErrorCode(p.getErrorCode());
+        copy.setErrorDescription(p.getErrorDescription());
+        copy.setCreatedAt(p.getCreatedAt());
+        copy.setUpdatedAt(p.getUpdatedAt());
+        return copy;
     }
 
     // ---------------- ID GENERATION ----------------
     private String generatePaymentId() {
-        String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
-        StringBuilder sb = new StringBuilder("pay_");
-        for (int i = 0; i < 16; i++) {
-            sb.append(chars.charAt(random.nextInt(chars.length())));
-        }
-        return sb.toString();
+        return idGenerator.nextId("pay_");
     }
 }
@@ -0,0 +1,51 @@
+package com.payment.gateway.services;
+
+import com.payment.gateway.models.Payment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-memory, per-node bus for payment status changes.
+ */
+@Component
+public class PaymentStatusBus {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentStatusBus.class);
+
+    private final Map<String, List<Consumer<Payment>>> listeners = new ConcurrentHashMap<>();
+
+    /** Registers a listener and returns the action that removes it again. */
+    public Runnable subscribe(String paymentId, Consumer<Payment> listener) {
+        listeners.computeIfAbsent(paymentId, id -> new CopyOnWriteArrayList<>()).add(listener);
+        return () -> listeners.computeIfPresent(paymentId, (id, list) -> {
+            list.remove(listener);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    public void publish(Payment payment) {
+        List<Consumer<Payment>> subscribers = listeners.get(payment.getId());
+        if (subscribers == null) {
+            return;
+        }
+
+        for (Consumer<Payment> listener : subscribers) {
+            try {
+                listener.accept(payment);
+            } catch (RuntimeException e) {
+                log.warn("Payment status listener failed for {}", payment.getId(), e);
+            }
+        }
+    }
+
+    public int getSubscribedPayments() {
+        return listeners.size();
+    }
+}
@@ -0,0 +1,119 @@
+package com.payment.gateway.services;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Concurrency limit for the processor calls of one payment method.
+ *
+ * At most maxConcurrent calls run at once; up to maxQueued more wait in a
+ * FIFO queue. Waiting calls hold no thread: a finishing call starts the
+ * next one from its completion. Capacity (running + waiting) is reserved
+ * with {@link #tryReserve()} before the payment row is written, so a full
+ * bulkhead rejects the request instead of queueing without bound.
+ */
+public class ProcessorBulkhead {
+
+    private final String method;
+    private final int maxConcurrent;
+    private final int maxQueued;
+
+    private final Semaphore capacity;
+    private final Queue<Runnable> waiting = new ArrayDeque<>();
+    private int running;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    public ProcessorBulkhead(String method, int maxConcurrent, int maxQueued) {
+        if (maxConcurrent < 1 || maxQueued < 0) {
+            throw new IllegalArgumentException("Bulkhead for " + method + " needs a limit >= 1 and a queue >= 0");
+        }
+        this.method = method;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.capacity = new Semaphore(maxConcurrent + maxQueued);
+    }
+
+    // ---------------- ADMISSION ----------------
+
+    public boolean tryReserve() {
+        if (capacity.tryAcquire()) {
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    /** Returns capacity that was reserved but will not be used. */
+    public void release() {
+        capacity.release();
+    }
+
+    // ---------------- EXECUTION ----------------
+
+    /**
+     * Runs a call on reserved capacity, now or once a running call finishes.
+     * The capacity is returned when the call's stage completes.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<? extends CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable start = () -> {
+            CompletableFuture<T> stage;
+            try {
+                stage = call.get();
+            } catch (RuntimeException e) {
+                stage = CompletableFuture.failedFuture(e);
+            }
+            stage.whenComplete((value, error) -> {
+                finished();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        };
+
+        boolean startNow;
+        synchronized (this) {
+            startNow = running < maxConcurrent;
+            if (startNow) {
+                running++;
+            } else {
+                waiting.add(start);
+            }
+        }
+        if (startNow) {
+            start.run();
+        }
+        return result;
+    }
+
+    private void finished() {
+        capacity.release();
+        Runnable next;
+        synchronized (this) {
+            next = waiting.poll();
+            if (next == null) {
+                running--;
+            }
+        }
+        // The finished call's slot passes straight to the next waiting call
+        if (next != null) {
+            next.run();
+        }
+    }
+
+    // ---------------- STATS ----------------
+
+    public String getMethod() { return method; }
+    public int getMaxConcurrent() { return maxConcurrent; }
+    public int getMaxQueued() { return maxQueued; }
+    public synchronized int getRunning() { return running; }
+    public synchronized int getQueued() { return waiting.size(); }
+    public long getRejectedCount() { return rejected.get(); }
+}
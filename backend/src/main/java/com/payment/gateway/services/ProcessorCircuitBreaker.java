@@ -0,0 +1,182 @@
+package com.payment.gateway.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Count-based circuit breaker for one payment processor.
+ *
+ * CLOSED: the outcomes of the last windowSize calls are kept in a ring
+ * buffer. Once at least minCalls are recorded and the share of failures
+ * (errors and timeouts, not declines) reaches failureRate, the breaker
+ * opens.
+ *
+ * OPEN: every payment is refused before it is written, until openMs has
+ * passed.
+ *
+ * HALF_OPEN: halfOpenCalls trial payments are let through. One failure
+ * opens the breaker again; all of them succeeding closes it. Each entry
+ * into HALF_OPEN starts a new generation, and tryAcquire() hands every
+ * trial the generation that issued it. Only outcomes recorded with the
+ * current generation count, so calls admitted while CLOSED, trials of an
+ * earlier generation and calls that never asked the breaker (NOT_TRIAL)
+ * cannot close or reopen it.
+ *
+ * All state changes happen under the instance lock; the request path holds
+ * it for a few field updates.
+ */
+public class ProcessorCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessorCircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** tryAcquire() result when the call may not be made. */
+    public static final long REFUSED = -1;
+    /** Permit of a call that is not a half-open trial. */
+    public static final long NOT_TRIAL = 0;
+
+    private final String processor;
+    private final double failureRate;
+    private final int minCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    private final boolean[] window;
+    private int windowNext;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private long generation;
+    private int trialsIssued;
+    private int trialSuccesses;
+
+    private final AtomicLong notPermitted = new AtomicLong();
+    private final AtomicLong opened = new AtomicLong();
+
+    public ProcessorCircuitBreaker(String processor,
+                                   double failureRate,
+                                   int windowSize,
+                                   int minCalls,
+                                   long openMs,
+                                   int halfOpenCalls) {
+        if (windowSize < 1 || minCalls < 1 || minCalls > windowSize || halfOpenCalls < 1) {
+            throw new IllegalArgumentException(
+                    "Circuit breaker needs 1 <= min calls <= window and at least one half-open call");
+        }
+        this.processor = processor;
+        this.failureRate = failureRate;
+        this.minCalls = minCalls;
+        this.openNanos = openMs * 1_000_000L;
+        this.halfOpenCalls = halfOpenCalls;
+        this.window = new boolean[windowSize];
+    }
+
+    // ---------------- PERMISSION ----------------
+
+    /**
+     * Asks to send a new payment to the processor. Returns REFUSED, NOT_TRIAL
+     * while CLOSED, or the current generation for a half-open trial. The
+     * result is the permit to pass to release() or record().
+     */
+    public synchronized long tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                notPermitted.incrementAndGet();
+                return REFUSED;
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsIssued >= halfOpenCalls) {
+                notPermitted.incrementAndGet();
+                return REFUSED;
+            }
+            trialsIssued++;
+            return generation;
+        }
+        return NOT_TRIAL;
+    }
+
+    /** Gives back a permit for a payment that was never sent. */
+    public synchronized void release(long permit) {
+        if (isCurrentTrial(permit)) {
+            trialsIssued--;
+        }
+    }
+
+    // ---------------- OUTCOMES ----------------
+
+    public synchronized void record(boolean failure, long permit) {
+        switch (state) {
+            case CLOSED -> {
+                if (windowCount == window.length) {
+                    if (window[windowNext]) windowFailures--;
+                } else {
+                    windowCount++;
+                }
+                window[windowNext] = failure;
+                if (failure) windowFailures++;
+                windowNext = (windowNext + 1) % window.length;
+
+                if (windowCount >= minCalls && windowFailures >= failureRate * windowCount) {
+                    transition(State.OPEN);
+                }
+            }
+            case HALF_OPEN -> {
+                if (!isCurrentTrial(permit)) {
+                    // Admitted while CLOSED, by an earlier half-open
+                    // generation, or without the breaker
+                    return;
+                }
+                if (failure) {
+                    transition(State.OPEN);
+                } else if (++trialSuccesses >= halfOpenCalls) {
+                    transition(State.CLOSED);
+                }
+            }
+            case OPEN -> {
+                // Late result of a call started before the breaker opened
+            }
+        }
+    }
+
+    private boolean isCurrentTrial(long permit) {
+        return state == State.HALF_OPEN && permit == generation;
+    }
+
+    private void transition(State next) {
+        log.info("Circuit breaker for processor {} changed from {} to {}", processor, state, next);
+        state = next;
+        if (next == State.OPEN) {
+            openedAt = System.nanoTime();
+            opened.incrementAndGet();
+        }
+        if (next == State.HALF_OPEN) {
+            generation++;
+            trialsIssued = 0;
+            trialSuccesses = 0;
+        }
+        if (next == State.CLOSED) {
+            windowNext = 0;
+            windowCount = 0;
+            windowFailures = 0;
+        }
+    }
+
+    // ---------------- STATS ----------------
+
+    public String getProcessor() { return processor; }
+    public synchronized State getState() { return state; }
+    public long getNotPermittedCount() { return notPermitted.get(); }
+    public long getOpenedCount() { return opened.get(); }
+
+    /** Failure share of the current window (0 when empty or not CLOSED). */
+    public synchronized double getFailureRate() {
+        return state != State.CLOSED || windowCount == 0 ? 0 : (double) windowFailures / windowCount;
+    }
+}
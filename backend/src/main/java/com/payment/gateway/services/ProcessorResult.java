@@ -0,0 +1,13 @@
+package com.payment.gateway.services;
+
+/** Decision of a PaymentProcessor; the error fields are set when declined. */
+public record ProcessorResult(boolean approved, String errorCode, String errorDescription) {
+
+    public static final ProcessorResult APPROVED = new ProcessorResult(true, null, null);
+    public static final ProcessorResult DECLINED =
+            new ProcessorResult(false, "PAYMENT_FAILED", "Payment processing failed");
+
+    public static ProcessorResult declined(String errorCode, String errorDescription) {
+        return new ProcessorResult(false, errorCode, errorDescription);
+    }
+}
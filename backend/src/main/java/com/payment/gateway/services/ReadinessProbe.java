@@ -0,0 +1,181 @@
+package com.payment.gateway.services;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Background readiness check.
+ *
+ * A scheduled probe validates a database connection and reads the pool and
+ * processing-queue state, then publishes an immutable snapshot. Health
+ * endpoints only read the latest snapshot, so they never wait on the pool
+ * behind real traffic. A snapshot older than HEALTH_PROBE_STALE_MS counts
+ * as not ready (the probe itself is stuck).
+ *
+ * Processor circuit breakers and bulkheads are reported but never make the
+ * instance unready: a degraded processor only affects new payments for its
+ * method, and orders, lookups and health must keep being served.
+ */
+@Component
+public class ReadinessProbe {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadinessProbe.class);
+
+    private static final Map<String, Object> STALE =
+            Map.of("status", "not_ready", "reasons", List.of("readiness probe is stale"));
+
+    public record Snapshot(boolean ready,
+                           boolean databaseUp,
+                           long checkedAtNanos,
+                           Map<String, Object> body) {
+    }
+
+    private final DataSource dataSource;
+    private final PaymentProcessingEngine processingEngine;
+    private final PaymentProcessorRouter processorRouter;
+
+    private final int maxPendingConnections;
+    private final double maxQueueRatio;
+    private final int validationTimeoutSeconds;
+    private final long staleAfterNanos;
+
+    private volatile Snapshot snapshot;
+
+    public ReadinessProbe(
+            DataSource dataSource,
+            PaymentProcessingEngine processingEngine,
+            PaymentProcessorRouter processorRouter,
+            @Value("${HEALTH_MAX_PENDING_CONNECTIONS:10}") int maxPendingConnections,
+            @Value("${HEALTH_MAX_QUEUE_RATIO:0.9}") double maxQueueRatio,
+            @Value("${HEALTH_DB_TIMEOUT_SECONDS:2}") int validationTimeoutSeconds,
+            @Value("${HEALTH_PROBE_STALE_MS:15000}") long staleAfterMs
+    ) {
+        this.dataSource = dataSource;
+        this.processingEngine = processingEngine;
+        this.processorRouter = processorRouter;
+        this.maxPendingConnections = maxPendingConnections;
+        this.maxQueueRatio = maxQueueRatio;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.staleAfterNanos = staleAfterMs * 1_000_000L;
+        this.snapshot = new Snapshot(false, false, System.nanoTime(),
+                Map.of("status", "starting", "reasons", List.of("probe has not run yet")));
+    }
+
+    // ---------------- PROBE ----------------
+    @Scheduled(fixedDelayString = "${HEALTH_PROBE_INTERVAL_MS:2000}")
+    public void probe() {
+        List<String> reasons = new ArrayList<>();
+        Map<String, Object> body = new LinkedHashMap<>();
+
+        HikariPoolMXBean pool = hikariPool();
+        int pending = 0;
+        if (pool != null) {
+            pending = pool.getThreadsAwaitingConnection();
+            Map<String, Object> poolState = new LinkedHashMap<>();
+            poolState.put("active", pool.getActiveConnections());
+            poolState.put("idle", pool.getIdleConnections());
+            poolState.put("total", pool.getTotalConnections());
+            poolState.put("pending", pending);
+            body.put("pool", poolState);
+        }
+
+        boolean databaseUp;
+        if (pending > maxPendingConnections) {
+            // Do not add to the queue; the pool is already saturated
+            databaseUp = snapshot.databaseUp();
+            reasons.add("connection pool saturated (" + pending + " waiting)");
+        } else {
+            databaseUp = checkDatabase();
+            if (!databaseUp) {
+                reasons.add("database unreachable");
+            }
+        }
+
+        int queueDepth = processingEngine.getQueueDepth();
+        int queueCapacity = processingEngine.getQueueCapacity();
+        Map<String, Object> queueState = new LinkedHashMap<>();
+        queueState.put("active", processingEngine.getActiveCount());
+        queueState.put("queued", queueDepth);
+        queueState.put("capacity", queueCapacity);
+        body.put("processing", queueState);
+        if (queueCapacity > 0 && queueDepth >= queueCapacity * maxQueueRatio) {
+            reasons.add("processing queue near capacity (" + queueDepth + "/" + queueCapacity + ")");
+        }
+
+        Map<String, Object> processors = new LinkedHashMap<>();
+        for (ProcessorCircuitBreaker breaker : processorRouter.getCircuitBreakers()) {
+            processors.put(breaker.getProcessor(), breaker.getState().name().toLowerCase());
+        }
+        body.put("processors", processors);
+
+        Map<String, Object> bulkheads = new LinkedHashMap<>();
+        for (ProcessorBulkhead bulkhead : processorRouter.getBulkheads()) {
+            Map<String, Object> bulkheadState = new LinkedHashMap<>();
+            bulkheadState.put("running", bulkhead.getRunning());
+            bulkheadState.put("queued", bulkhead.getQueued());
+            bulkheadState.put("limit", bulkhead.getMaxConcurrent());
+            bulkheads.put(bulkhead.getMethod(), bulkheadState);
+        }
+        body.put("bulkheads", bulkheads);
+
+        boolean ready = reasons.isEmpty();
+        body.put("status", ready ? "ready" : "not_ready");
+        body.put("database", databaseUp ? "connected" : "disconnected");
+        body.put("checked_at", Instant.now().toString());
+        if (!ready) {
+            body.put("reasons", reasons);
+        }
+
+        Snapshot previous = snapshot;
+        snapshot = new Snapshot(ready, databaseUp, System.nanoTime(), Collections.unmodifiableMap(body));
+
+        if (previous.ready() != ready) {
+            log.info("Readiness changed to {}{}", ready ? "ready" : "not ready", ready ? "" : ": " + reasons);
+        }
+    }
+
+    private boolean checkDatabase() {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private HikariPoolMXBean hikariPool() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            }
+        } catch (SQLException e) {
+            // Not a Hikari pool; saturation check is skipped
+        }
+        return null;
+    }
+
+    // ---------------- READ ----------------
+
+    /** Latest snapshot, or a not-ready one if the probe has stopped running. */
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (System.nanoTime() - current.checkedAtNanos() > staleAfterNanos) {
+            return new Snapshot(false, current.databaseUp(), current.checkedAtNanos(), STALE);
+        }
+        return current;
+    }
+}
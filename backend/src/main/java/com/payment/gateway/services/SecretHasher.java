@@ -0,0 +1,74 @@
+package com.payment.gateway.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Salted PBKDF2 hashing of merchant API secrets.
+ *
+ * Encoded form: pbkdf2-sha256$iterations$salt$hash (salt and hash in Base64),
+ * so the iteration count can be raised later without breaking stored secrets.
+ */
+@Component
+public class SecretHasher {
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2-sha256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final int iterations;
+
+    public SecretHasher(@Value("${API_SECRET_HASH_ITERATIONS:210000}") int iterations) {
+        this.iterations = iterations;
+    }
+
+    public String hash(String secret) {
+        byte[] salt = new byte[SALT_BYTES];
+        secureRandom.nextBytes(salt);
+        byte[] hash = derive(secret, salt, iterations);
+
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + "$" + iterations + "$"
+                + encoder.encodeToString(salt) + "$"
+                + encoder.encodeToString(hash);
+    }
+
+    public boolean matches(String secret, String encoded) {
+        if (secret == null || encoded == null) return false;
+
+        String[] parts = encoded.split("\\$");
+        if (parts.length != 4 || !PREFIX.equals(parts[0])) return false;
+
+        try {
+            int rounds = Integer.parseInt(parts[1]);
+            Base64.Decoder decoder = Base64.getDecoder();
+            byte[] salt = decoder.decode(parts[2]);
+            byte[] expected = decoder.decode(parts[3]);
+
+            // Constant-time comparison
+            return MessageDigest.isEqual(expected, derive(secret, salt, rounds));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private byte[] derive(String secret, byte[] salt, int rounds) {
+        PBEKeySpec spec = new PBEKeySpec(secret.toCharArray(), salt, rounds, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " unavailable", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
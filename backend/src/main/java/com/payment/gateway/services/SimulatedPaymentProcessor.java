@@ -0,0 +1,138 @@
+package com.payment.gateway.services;
+
+import com.payment.gateway.models.Payment;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local stand-in for a payment processor. Each call draws a latency and an
+ * outcome and completes its future from a shared scheduler after that
+ * latency, so no thread waits while a payment is "at the processor".
+ *
+ * Latency is uniform in [min-ms, max-ms], or lognormal around median-ms
+ * with shape sigma (clamped to [min-ms, max-ms]); a spike-rate share of
+ * calls gets spike-ms on top, for tail-latency tests. An error-rate share
+ * fails with PROCESSOR_ERROR instead of returning a decision.
+ */
+public class SimulatedPaymentProcessor implements PaymentProcessor {
+
+    public enum Latency { UNIFORM, LOGNORMAL }
+
+    public record Settings(double successRate,
+                           Latency latency,
+                           long minMs,
+                           long maxMs,
+                           double medianMs,
+                           double sigma,
+                           double spikeRate,
+                           long spikeMs,
+                           double errorRate) {
+
+        public static final Settings DEFAULTS =
+                new Settings(0.95, Latency.LOGNORMAL, 0, 60000, 1000, 0.5, 0, 0, 0);
+
+        public static Settings uniform(double successRate, long minMs, long maxMs) {
+            return new Settings(successRate, Latency.UNIFORM, minMs, maxMs, 0, 0, 0, 0, 0);
+        }
+
+        /**
+         * Parses "key=value,key=value" on top of {@link #DEFAULTS}. Throws
+         * IllegalArgumentException for unknown keys or bad values.
+         */
+        public static Settings parse(String spec) {
+            Map<String, String> values = new HashMap<>();
+            for (String pair : spec.split(",")) {
+                if (pair.isBlank()) continue;
+                int eq = pair.indexOf('=');
+                if (eq < 0) {
+                    throw new IllegalArgumentException("Expected key=value in simulator settings: " + pair);
+                }
+                values.put(pair.substring(0, eq).trim(), pair.substring(eq + 1).trim());
+            }
+
+            Settings d = DEFAULTS;
+            Settings settings = new Settings(
+                    number(values.remove("success-rate"), d.successRate()),
+                    values.containsKey("latency")
+                            ? Latency.valueOf(values.remove("latency").toUpperCase())
+                            : d.latency(),
+                    (long) number(values.remove("min-ms"), d.minMs()),
+                    (long) number(values.remove("max-ms"), d.maxMs()),
+                    number(values.remove("median-ms"), d.medianMs()),
+                    number(values.remove("sigma"), d.sigma()),
+                    number(values.remove("spike-rate"), d.spikeRate()),
+                    (long) number(values.remove("spike-ms"), d.spikeMs()),
+                    number(values.remove("error-rate"), d.errorRate())
+            );
+
+            if (!values.isEmpty()) {
+                throw new IllegalArgumentException("Unknown simulator settings: " + values.keySet());
+            }
+            if (settings.minMs() < 0 || settings.maxMs() < settings.minMs()) {
+                throw new IllegalArgumentException("Simulator needs 0 <= min-ms <= max-ms");
+            }
+            return settings;
+        }
+
+        private static double number(String value, double defaultValue) {
+            return value == null ? defaultValue : Double.parseDouble(value);
+        }
+    }
+
+    private final String name;
+    private final Settings settings;
+    private final ScheduledExecutorService scheduler;
+
+    public SimulatedPaymentProcessor(String name, Settings settings, ScheduledExecutorService scheduler) {
+        this.name = name;
+        this.settings = settings;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    @Override
+    public CompletableFuture<ProcessorResult> process(Payment payment) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delayMs = sampleLatency(random);
+        boolean error = random.nextDouble() < settings.errorRate();
+        boolean approved = random.nextDouble() < settings.successRate();
+
+        CompletableFuture<ProcessorResult> result = new CompletableFuture<>();
+        scheduler.schedule(() -> {
+            if (error) {
+                result.completeExceptionally(new IllegalStateException("PROCESSOR_ERROR"));
+            } else {
+                result.complete(approved ? ProcessorResult.APPROVED : ProcessorResult.DECLINED);
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    long sampleLatency(ThreadLocalRandom random) {
+        long latency;
+        if (settings.latency() == Latency.UNIFORM) {
+            latency = random.nextLong(settings.minMs(), settings.maxMs() + 1);
+        } else {
+            double sample = settings.medianMs() * Math.exp(settings.sigma() * random.nextGaussian());
+            latency = Math.max(settings.minMs(), Math.min(settings.maxMs(), Math.round(sample)));
+        }
+
+        if (settings.spikeRate() > 0 && random.nextDouble() < settings.spikeRate()) {
+            latency += settings.spikeMs();
+        }
+        return latency;
+    }
+}
@@ -0,0 +1,74 @@
+package com.payment.gateway.services;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Runs at most one load per key at a time; callers that miss on the same key
+ * meanwhile wait for that load's result.
+ *
+ * The read-through caches use this instead of Caffeine's get(key, loader):
+ * there the loader runs inside the cache's map compute, so a JDBC call holds
+ * a bin lock (shared with unrelated keys) and pins a virtual thread to its
+ * carrier. Here the load runs with no lock held; only storing the result
+ * takes the lock of this map.
+ */
+final class SingleFlightLoader<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Loads the value for a key, or waits for the load already running.
+     * The loading caller passes the result to store, unless
+     * {@link #forget(Object)} ran for the key in between.
+     */
+    V load(K key, Function<K, V> loader, BiConsumer<K, V> store) {
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, load);
+        if (running != null) {
+            return await(running);
+        }
+
+        V value;
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException e) {
+            inFlight.remove(key, load);
+            load.completeExceptionally(e);
+            throw e;
+        }
+
+        // The value may predate an invalidation that forgot this load; then it is not stored
+        inFlight.computeIfPresent(key, (k, current) -> {
+            if (current == load) {
+                store.accept(k, value);
+                return null;
+            }
+            return current;
+        });
+        load.complete(value);
+        return value;
+    }
+
+    /** Keeps a running load for the key from storing its result. */
+    void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    void forgetAll() {
+        inFlight.clear();
+    }
+
+    private static <V> V await(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+}
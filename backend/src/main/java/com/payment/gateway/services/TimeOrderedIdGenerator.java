@@ -0,0 +1,123 @@
+package com.payment.gateway.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * K-sortable ids: 29 base36 characters made of
+ *
+ *   8 chars   milliseconds since 2024-01-01 (good for ~89 years)
+ *   8 chars   node id (10 bits) | sequence (12 bits) | random (19 bits)
+ *   13 chars  random (64 bits from SecureRandom)
+ *
+ * Ids from one node are strictly increasing, so new rows land at the right
+ * edge of the orders/payments primary key B-trees. Base36 with lowercase
+ * letters sorts identically under the C and en_US collations. The public
+ * checkout endpoints are addressed by id alone, so the 64-bit suffix is what
+ * keeps ids of other payments from being guessed.
+ *
+ * The (timestamp, sequence) pair lives in one AtomicLong updated by CAS:
+ * no locks, and no waiting when the 4096 ids of a millisecond run out; the
+ * generator moves on to the next millisecond and the clock catches up.
+ */
+@Component
+public class TimeOrderedIdGenerator implements IdGenerator {
+
+    static final long EPOCH_MS = 1704067200000L; // 2024-01-01T00:00:00Z
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int RANDOM_BITS = 19;
+
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int RANDOM_BOUND = 1 << RANDOM_BITS;
+
+    private static final int TIME_CHARS = 8;
+    private static final int TAIL_CHARS = 8;
+    private static final int RANDOM_CHARS = 13; // 36^13 > 2^64
+    private static final char[] ALPHABET = "0123456789abcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    private final long nodeId;
+    private final AtomicLong state = new AtomicLong();
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public TimeOrderedIdGenerator(@Value("${NODE_ID:0}") long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE) {
+            throw new IllegalArgumentException("NODE_ID must be between 0 and " + MAX_NODE);
+        }
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public String nextId(String prefix) {
+        long next = nextState();
+        long timestamp = next >>> SEQUENCE_BITS;
+        long sequence = next & SEQUENCE_MASK;
+        long tail = (((nodeId << SEQUENCE_BITS) | sequence) << RANDOM_BITS)
+                | ThreadLocalRandom.current().nextInt(RANDOM_BOUND);
+
+        int prefixLength = prefix.length();
+        char[] buf = new char[prefixLength + TIME_CHARS + TAIL_CHARS + RANDOM_CHARS];
+        prefix.getChars(0, prefixLength, buf, 0);
+        encode(timestamp, buf, prefixLength, TIME_CHARS);
+        encode(tail, buf, prefixLength + TIME_CHARS, TAIL_CHARS);
+        encode(secureRandom.nextLong(), buf, prefixLength + TIME_CHARS + TAIL_CHARS, RANDOM_CHARS);
+        return new String(buf);
+    }
+
+    @Override
+    public Optional<Instant> timestampOf(String id) {
+        int start = id.lastIndexOf('_') + 1;
+        if (id.length() - start != TIME_CHARS + TAIL_CHARS + RANDOM_CHARS) {
+            return Optional.empty();
+        }
+        long millis = 0;
+        for (int i = start; i < start + TIME_CHARS; i++) {
+            char c = id.charAt(i);
+            int digit = c >= '0' && c <= '9' ? c - '0' : c >= 'a' && c <= 'z' ? c - 'a' + 10 : -1;
+            if (digit < 0) {
+                return Optional.empty();
+            }
+            millis = millis * 36 + digit;
+        }
+        return Optional.of(Instant.ofEpochMilli(EPOCH_MS + millis));
+    }
+
+    private long nextState() {
+        while (true) {
+            long now = System.currentTimeMillis() - EPOCH_MS;
+            long prev = state.get();
+            long prevTimestamp = prev >>> SEQUENCE_BITS;
+
+            long next;
+            if (now > prevTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else if ((prev & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                // Same millisecond, or the clock went backwards
+                next = prev + 1;
+            } else {
+                // Sequence exhausted: borrow the next millisecond
+                next = (prevTimestamp + 1) << SEQUENCE_BITS;
+            }
+
+            if (state.compareAndSet(prev, next)) {
+                return next;
+            }
+        }
+    }
+
+    // value is treated as unsigned
+    private static void encode(long value, char[] buf, int offset, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buf[i] = ALPHABET[(int) Long.remainderUnsigned(value, 36)];
+            value = Long.divideUnsigned(value, 36);
+        }
+    }
+}
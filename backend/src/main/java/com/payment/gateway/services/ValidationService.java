@@ -4,58 +4,106 @@ import org.springframework.stereotype.Service;
 
 import java.time.YearMonth;
 
+/**
+ * Payment input validation.
+ *
+ * Every check is a single pass over the input with no regex and no
+ * intermediate strings. Results match the original regex rules exactly:
+ *
+ *   VPA      ^[a-zA-Z0-9._-]+@[a-zA-Z0-9]+$
+ *   card     [ -] removed, then \d{13,19} and Luhn
+ *   network  4 visa, 5[1-5].* mastercard, 3[47].* amex, (60|65|8[1-9]).* rupay
+ *
+ * Like ".*" in those patterns, the non-visa prefixes reject a line
+ * terminator anywhere after the prefix.
+ */
 @Service
 public class ValidationService {
 
+    private static final int MIN_CARD_DIGITS = 13;
+    private static final int MAX_CARD_DIGITS = 19;
+
+    private static final BinTrie NETWORKS = new BinTrie()
+            .add("4", "visa", true)
+            .add("51", "mastercard", false)
+            .add("52", "mastercard", false)
+            .add("53", "mastercard", false)
+            .add("54", "mastercard", false)
+            .add("55", "mastercard", false)
+            .add("34", "amex", false)
+            .add("37", "amex", false)
+            .add("60", "rupay", false)
+            .add("65", "rupay", false)
+            .add("81", "rupay", false)
+            .add("82", "rupay", false)
+            .add("83", "rupay", false)
+            .add("84", "rupay", false)
+            .add("85", "rupay", false)
+            .add("86", "rupay", false)
+            .add("87", "rupay", false)
+            .add("88", "rupay", false)
+            .add("89", "rupay", false);
+
     // ---------------- VPA VALIDATION ----------------
     public boolean isValidVpa(String vpa) {
         if (vpa == null) return false;
-        return vpa.matches("^[a-zA-Z0-9._-]+@[a-zA-Z0-9]+$");
+
+        int len = vpa.length();
+        int i = 0;
+
+        while (i < len && isVpaLocalChar(vpa.charAt(i))) i++;
+        if (i == 0 || i == len || vpa.charAt(i) != '@') return false;
+
+        int domainStart = ++i;
+        while (i < len && isAsciiAlphanumeric(vpa.charAt(i))) i++;
+
+        return i == len && i > domainStart;
     }
 
     // ---------------- CARD NUMBER (LUHN) ----------------
     public boolean isValidCardNumber(String cardNumber) {
         if (cardNumber == null) return false;
 
-        String cleaned = cardNumber.replaceAll("[ -]", "");
-        if (!cleaned.matches("\\d{13,19}")) return false;
-
+        int digits = 0;
         int sum = 0;
-        boolean alternate = false;
 
-        for (int i = cleaned.length() - 1; i >= 0; i--) {
-            int n = cleaned.charAt(i) - '0';
+        for (int i = cardNumber.length() - 1; i >= 0; i--) {
+            char c = cardNumber.charAt(i);
+            if (isSeparator(c)) continue;
+            if (c < '0' || c > '9' || digits == MAX_CARD_DIGITS) return false;
 
-            if (alternate) {
+            int n = c - '0';
+            if ((digits & 1) == 1) {
                 n *= 2;
                 if (n > 9) n -= 9;
             }
 
             sum += n;
-            alternate = !alternate;
+            digits++;
         }
 
-        return sum % 10 == 0;
+        return digits >= MIN_CARD_DIGITS && sum % 10 == 0;
     }
 
     // ---------------- CARD NETWORK DETECTION ----------------
     public String detectCardNetwork(String cardNumber) {
-        String cleaned = cardNumber.replaceAll("[ -]", "");
-
-        if (cleaned.startsWith("4")) {
-            return "visa";
-        }
-
-        if (cleaned.matches("^5[1-5].*")) {
-            return "mastercard";
-        }
-
-        if (cleaned.matches("^3[47].*")) {
-            return "amex";
-        }
-
-        if (cleaned.matches("^(60|65|8[1-9]).*")) {
-            return "rupay";
+        int len = cardNumber.length();
+        BinTrie.Node node = NETWORKS.root;
+
+        for (int i = 0; i < len; i++) {
+            char c = cardNumber.charAt(i);
+            if (isSeparator(c)) continue;
+            if (c < '0' || c > '9') break;
+
+            node = node.next[c - '0'];
+            if (node == null) break;
+
+            if (node.network != null) {
+                if (node.anySuffix || !containsLineTerminator(cardNumber, i + 1)) {
+                    return node.network;
+                }
+                break;
+            }
         }
 
         return "unknown";
@@ -80,4 +128,52 @@ public class ValidationService {
             return false;
         }
     }
+
+    // ---------------- CHARACTER CLASSES ----------------
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '-';
+    }
+
+    private static boolean isAsciiAlphanumeric(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    private static boolean isVpaLocalChar(char c) {
+        return isAsciiAlphanumeric(c) || c == '.' || c == '_' || c == '-';
+    }
+
+    // Line terminators that "." does not match (java.util.regex.Pattern)
+    private static boolean containsLineTerminator(String s, int from) {
+        for (int i = from; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ---------------- BIN / IIN PREFIX TRIE ----------------
+    private static final class BinTrie {
+
+        static final class Node {
+            final Node[] next = new Node[10];
+            String network;
+            boolean anySuffix;
+        }
+
+        final Node root = new Node();
+
+        BinTrie add(String prefix, String network, boolean anySuffix) {
+            Node node = root;
+            for (int i = 0; i < prefix.length(); i++) {
+                int d = prefix.charAt(i) - '0';
+                if (node.next[d] == null) node.next[d] = new Node();
+                node = node.next[d];
+            }
+            node.network = network;
+            node.anySuffix = anySuffix;
+            return this;
+        }
+    }
 }
@@ -0,0 +1,262 @@
+package com.payment.gateway.services;
+
+import com.payment.gateway.models.Merchant;
+import com.payment.gateway.models.WebhookOutboxEvent;
+import com.payment.gateway.repositories.MerchantRepository;
+import com.payment.gateway.repositories.WebhookOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the webhook outbox in batches and delivers signed webhooks.
+ *
+ * Rows are claimed with SKIP LOCKED and leased by pushing next_attempt_at
+ * forward, then delivered outside the transaction. Each merchant has its own
+ * concurrency limit; rows over the limit are released for the next poll.
+ * Failed deliveries are retried with exponential backoff and jitter until
+ * the attempt limit, then marked failed. Rows that can never be delivered
+ * (no webhook_url or webhook_secret, or an invalid URL) are marked skipped.
+ */
+@Service
+public class WebhookDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookDispatcher.class);
+
+    private static final String SIGNATURE_ALGORITHM = "HmacSHA256";
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final long[] TEST_RETRY_DELAYS_MS = {5_000, 10_000, 15_000, 20_000};
+
+    private final WebhookOutboxRepository outboxRepository;
+    private final MerchantRepository merchantRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final HttpClient httpClient;
+
+    private final int batchSize;
+    private final int merchantConcurrency;
+    private final int maxAttempts;
+    private final long retryBaseMs;
+    private final long retryMaxMs;
+    private final boolean testRetryIntervals;
+    private final Duration requestTimeout;
+    private final Duration lease;
+
+    private final Map<String, Semaphore> merchantPermits = new ConcurrentHashMap<>();
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    public WebhookDispatcher(
+            WebhookOutboxRepository outboxRepository,
+            MerchantRepository merchantRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${WEBHOOK_BATCH_SIZE:100}") int batchSize,
+            @Value("${WEBHOOK_MERCHANT_CONCURRENCY:4}") int merchantConcurrency,
+            @Value("${WEBHOOK_MAX_ATTEMPTS:5}") int maxAttempts,
+            @Value("${WEBHOOK_RETRY_BASE_MS:10000}") long retryBaseMs,
+            @Value("${WEBHOOK_RETRY_MAX_MS:3600000}") long retryMaxMs,
+            @Value("${WEBHOOK_RETRY_INTERVALS_TEST:false}") boolean testRetryIntervals,
+            @Value("${WEBHOOK_TIMEOUT_MS:5000}") long timeoutMs
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.merchantRepository = merchantRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.merchantConcurrency = merchantConcurrency;
+        this.maxAttempts = maxAttempts;
+        this.retryBaseMs = retryBaseMs;
+        this.retryMaxMs = retryMaxMs;
+        this.testRetryIntervals = testRetryIntervals;
+        this.requestTimeout = Duration.ofMillis(timeoutMs);
+        // A claimed row is not picked up again until its delivery had time to finish
+        this.lease = Duration.ofMillis(timeoutMs * 2 + 1000);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(requestTimeout)
+                .build();
+    }
+
+    // ---------------- DRAIN ----------------
+    @Scheduled(fixedDelayString = "${WEBHOOK_POLL_INTERVAL_MS:1000}")
+    public void dispatchDue() {
+        List<WebhookOutboxEvent> claimed = claimBatch();
+
+        for (WebhookOutboxEvent event : claimed) {
+            try {
+                dispatch(event);
+            } catch (RuntimeException e) {
+                log.error("Webhook dispatch failed for outbox event {}", event.getId(), e);
+            }
+        }
+    }
+
+    private List<WebhookOutboxEvent> claimBatch() {
+        Instant now = Instant.now();
+        Instant leaseUntil = now.plus(lease);
+
+        return transactionTemplate.execute(status -> {
+            List<WebhookOutboxEvent> due =
+                    outboxRepository.findDueForUpdate(now, PageRequest.of(0, batchSize));
+            for (WebhookOutboxEvent event : due) {
+                event.setNextAttemptAt(leaseUntil);
+            }
+            return due;
+        });
+    }
+
+    private void dispatch(WebhookOutboxEvent event) {
+        Optional<Merchant> merchant = merchantRepository.findById(UUID.fromString(event.getMerchantId()));
+        String url = merchant.map(Merchant::getWebhookUrl).orElse(null);
+        String secret = merchant.map(Merchant::getWebhookSecret).orElse(null);
+
+        if (url == null || url.isBlank()) {
+            onSkipped(event, "no webhook_url configured");
+            return;
+        }
+        if (secret == null || secret.isEmpty()) {
+            // Unsigned webhooks cannot be verified; retrying will not fix that
+            onSkipped(event, "no webhook_secret configured");
+            return;
+        }
+
+        // Everything that can throw for this row happens before a permit is held
+        HttpRequest request;
+        try {
+            request = buildRequest(event, url, secret);
+        } catch (IllegalArgumentException e) {
+            onSkipped(event, "invalid webhook_url: " + e.getMessage());
+            return;
+        }
+
+        Semaphore permits = merchantPermits.computeIfAbsent(
+                event.getMerchantId(), id -> new Semaphore(merchantConcurrency));
+        if (!permits.tryAcquire()) {
+            // Merchant is at its concurrency limit; hand the row back
+            outboxRepository.reschedule(event.getId(), Instant.now());
+            return;
+        }
+
+        try {
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        permits.release();
+                        if (error == null && response.statusCode() >= 200 && response.statusCode() < 300) {
+                            onDelivered(event);
+                        } else {
+                            onFailure(event, error != null
+                                    ? error.getClass().getSimpleName() + ": " + error.getMessage()
+                                    : "HTTP " + response.statusCode());
+                        }
+                    });
+        } catch (RuntimeException e) {
+            permits.release();
+            onFailure(event, e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    private HttpRequest buildRequest(WebhookOutboxEvent event, String url, String secret) {
+        String timestamp = Long.toString(Instant.now().getEpochSecond());
+        String signature = sign(secret, timestamp, event.getPayload());
+
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header("X-Webhook-Id", event.getId().toString())
+                .header("X-Webhook-Event", event.getEventType())
+                .header("X-Webhook-Timestamp", timestamp)
+                .header("X-Webhook-Signature", signature)
+                .POST(HttpRequest.BodyPublishers.ofString(event.getPayload()))
+                .build();
+    }
+
+    // ---------------- OUTCOMES ----------------
+
+    private void onDelivered(WebhookOutboxEvent event) {
+        outboxRepository.markDelivered(event.getId(), event.getAttempts() + 1, Instant.now());
+        delivered.incrementAndGet();
+    }
+
+    private void onSkipped(WebhookOutboxEvent event, String reason) {
+        outboxRepository.markFinal(event.getId(), "skipped", event.getAttempts(), truncate(reason));
+        skipped.incrementAndGet();
+    }
+
+    private void onFailure(WebhookOutboxEvent event, String error) {
+        int attempts = event.getAttempts() + 1;
+        String lastError = truncate(error);
+
+        if (attempts >= maxAttempts) {
+            outboxRepository.markFinal(event.getId(), "failed", attempts, lastError);
+            failed.incrementAndGet();
+            log.warn("Webhook {} for payment {} failed after {} attempts: {}",
+                    event.getEventType(), event.getPaymentId(), attempts, lastError);
+            return;
+        }
+
+        outboxRepository.markRetry(event.getId(), attempts,
+                Instant.now().plusMillis(retryDelayMs(attempts)), lastError);
+        retried.incrementAndGet();
+    }
+
+    private static String truncate(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    private long retryDelayMs(int attempts) {
+        if (testRetryIntervals) {
+            return TEST_RETRY_DELAYS_MS[Math.min(attempts, TEST_RETRY_DELAYS_MS.length) - 1];
+        }
+
+        long exponential = retryBaseMs << Math.min(attempts - 1, 20);
+        long capped = Math.min(exponential, retryMaxMs);
+        // Up to 20% jitter so retries of one outage do not arrive in lockstep
+        return capped - ThreadLocalRandom.current().nextLong(capped / 5 + 1);
+    }
+
+    // ---------------- SIGNATURE ----------------
+
+    /** t=timestamp,v1=hex(HMAC-SHA256(secret, timestamp + "." + payload)) */
+    private String sign(String secret, String timestamp, String payload) {
+        try {
+            Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), SIGNATURE_ALGORITHM));
+            byte[] digest = mac.doFinal((timestamp + "." + payload).getBytes(StandardCharsets.UTF_8));
+            return "t=" + timestamp + ",v1=" + HexFormat.of().formatHex(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(SIGNATURE_ALGORITHM + " unavailable", e);
+        }
+    }
+
+    // ---------------- STATS ----------------
+
+    public long getDeliveredCount() { return delivered.get(); }
+    public long getRetriedCount() { return retried.get(); }
+    public long getFailedCount() { return failed.get(); }
+    public long getSkippedCount() { return skipped.get(); }
+}
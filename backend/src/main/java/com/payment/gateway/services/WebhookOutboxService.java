@@ -0,0 +1,63 @@
+package com.payment.gateway.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.gateway.controllers.PaymentJsonWriter;
+import com.payment.gateway.models.Payment;
+import com.payment.gateway.models.WebhookOutboxEvent;
+import com.payment.gateway.repositories.WebhookOutboxRepository;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+
+/**
+ * Writes webhook events to the transactional outbox. Callers must already be
+ * inside the transaction that changes the payment, so the event exists if and
+ * only if the status change was committed.
+ */
+@Service
+public class WebhookOutboxService {
+
+    private final WebhookOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public WebhookOutboxService(WebhookOutboxRepository outboxRepository,
+                                ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public void enqueuePaymentEvent(Payment payment) {
+        String eventType = "payment." + payment.getStatus();
+        Instant now = Instant.now();
+
+        WebhookOutboxEvent event = new WebhookOutboxEvent();
+        event.setMerchantId(payment.getMerchantId());
+        event.setEventType(eventType);
+        event.setPaymentId(payment.getId());
+        event.setPayload(buildPayload(eventType, now, payment));
+        event.setNextAttemptAt(now);
+
+        outboxRepository.save(event);
+    }
+
+    private String buildPayload(String eventType, Instant timestamp, Payment payment) {
+        StringWriter out = new StringWriter(512);
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.writeStartObject();
+            gen.writeStringField("event", eventType);
+            gen.writeNumberField("timestamp", timestamp.getEpochSecond());
+            gen.writeObjectFieldStart("data");
+            gen.writeFieldName("payment");
+            PaymentJsonWriter.write(gen, payment);
+            gen.writeEndObject();
+            gen.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,87 @@
+-- Initial schema. Column types match the JPA mappings, which Hibernate
+-- checks on startup (ddl-auto=validate).
+
+CREATE TABLE merchants (
+    id              UUID                        PRIMARY KEY,
+    name            VARCHAR(255)                NOT NULL,
+    email           VARCHAR(255)                NOT NULL,
+    api_key         VARCHAR(64)                 NOT NULL,
+    api_secret_hash VARCHAR(255)                NOT NULL,
+    webhook_url     TEXT,
+    webhook_secret  VARCHAR(64),
+    is_active       BOOLEAN                     DEFAULT TRUE,
+    created_at      TIMESTAMP(6) WITH TIME ZONE,
+    updated_at      TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT uk_merchants_email UNIQUE (email),
+    CONSTRAINT uk_merchants_api_key UNIQUE (api_key)
+);
+
+CREATE TABLE orders (
+    id          VARCHAR(64)                 PRIMARY KEY,
+    merchant_id VARCHAR(255)                NOT NULL,
+    amount      INTEGER                     NOT NULL,
+    currency    VARCHAR(3),
+    receipt     VARCHAR(255),
+    notes       TEXT,
+    status      VARCHAR(20),
+    created_at  TIMESTAMP(6) WITH TIME ZONE,
+    updated_at  TIMESTAMP(6) WITH TIME ZONE
+);
+
+-- Merchant-scoped order lookup (findByIdAndMerchantId) as an index-only scan
+CREATE INDEX idx_orders_id_merchant ON orders (id, merchant_id);
+
+CREATE TABLE payments (
+    id                VARCHAR(64)                 PRIMARY KEY,
+    order_id          VARCHAR(64)                 NOT NULL,
+    merchant_id       VARCHAR(255)                NOT NULL,
+    amount            INTEGER                     NOT NULL,
+    currency          VARCHAR(3),
+    method            VARCHAR(20)                 NOT NULL,
+    status            VARCHAR(20),
+    vpa               VARCHAR(255),
+    card_network      VARCHAR(20),
+    card_last4        VARCHAR(4),
+    error_code        VARCHAR(50),
+    error_description TEXT,
+    created_at        TIMESTAMP(6) WITH TIME ZONE,
+    updated_at        TIMESTAMP(6) WITH TIME ZONE
+);
+
+CREATE INDEX idx_payments_order_id ON payments (order_id);
+
+-- Keyset pagination and exports: WHERE merchant_id = ? ORDER BY created_at, id
+CREATE INDEX idx_payments_merchant_created ON payments (merchant_id, created_at);
+
+-- Startup recovery only looks for unfinished payments; finished ones are
+-- the vast majority and stay out of the index
+CREATE INDEX idx_payments_processing ON payments (status) WHERE status = 'processing';
+
+CREATE TABLE idempotency_keys (
+    id              VARCHAR(64)                 PRIMARY KEY,
+    scope           VARCHAR(100)                NOT NULL,
+    idempotency_key VARCHAR(255)                NOT NULL,
+    request_hash    VARCHAR(64)                 NOT NULL,
+    response_status INTEGER                     NOT NULL,
+    response_body   TEXT,
+    created_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
+
+CREATE TABLE webhook_outbox (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    merchant_id     VARCHAR(255)                NOT NULL,
+    event_type      VARCHAR(50)                 NOT NULL,
+    payment_id      VARCHAR(64)                 NOT NULL,
+    payload         TEXT                        NOT NULL,
+    status          VARCHAR(20)                 NOT NULL,
+    attempts        INTEGER                     NOT NULL,
+    next_attempt_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    last_error      TEXT,
+    created_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    delivered_at    TIMESTAMP(6) WITH TIME ZONE
+);
+
+-- Dispatcher poll: WHERE status = 'pending' AND next_attempt_at <= now()
+CREATE INDEX idx_webhook_outbox_due ON webhook_outbox (next_attempt_at) WHERE status = 'pending';
@@ -0,0 +1,67 @@
+-- Range-partition payments by month of created_at.
+--
+-- Partition names are payments_pYYYYMM with UTC month bounds. Partitions
+-- for upcoming months are created by PaymentPartitionMaintenance; this
+-- migration creates the ones needed for existing rows plus the next three
+-- months so inserts work before the job first runs. Rows are copied once.
+
+ALTER TABLE payments RENAME TO payments_legacy;
+ALTER TABLE payments_legacy RENAME CONSTRAINT payments_pkey TO payments_legacy_pkey;
+DROP INDEX idx_payments_order_id;
+DROP INDEX idx_payments_merchant_created;
+DROP INDEX idx_payments_processing;
+
+CREATE TABLE payments (
+    id                VARCHAR(64)                 NOT NULL,
+    order_id          VARCHAR(64)                 NOT NULL,
+    merchant_id       VARCHAR(255)                NOT NULL,
+    amount            INTEGER                     NOT NULL,
+    currency          VARCHAR(3),
+    method            VARCHAR(20)                 NOT NULL,
+    status            VARCHAR(20),
+    vpa               VARCHAR(255),
+    card_network      VARCHAR(20),
+    card_last4        VARCHAR(4),
+    error_code        VARCHAR(50),
+    error_description TEXT,
+    created_at        TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    updated_at        TIMESTAMP(6) WITH TIME ZONE,
+    -- The partition key must be part of every unique constraint. Ids are
+    -- generated unique on their own; the key only enforces it per month
+    CONSTRAINT payments_pkey PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+DO $$
+DECLARE
+    first_month TIMESTAMP;
+    last_month  TIMESTAMP;
+    month       TIMESTAMP;
+BEGIN
+    SELECT date_trunc('month', COALESCE(MIN(created_at), now()) AT TIME ZONE 'UTC')
+      INTO first_month
+      FROM payments_legacy;
+    last_month := date_trunc('month', now() AT TIME ZONE 'UTC') + INTERVAL '3 months';
+
+    month := first_month;
+    WHILE month <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE %I PARTITION OF payments FOR VALUES FROM (%L) TO (%L)',
+            'payments_p' || to_char(month, 'YYYYMM'),
+            (month AT TIME ZONE 'UTC'),
+            ((month + INTERVAL '1 month') AT TIME ZONE 'UTC'));
+        month := month + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO payments
+SELECT id, order_id, merchant_id, amount, currency, method, status, vpa,
+       card_network, card_last4, error_code, error_description,
+       COALESCE(created_at, updated_at, now()), updated_at
+  FROM payments_legacy;
+
+DROP TABLE payments_legacy;
+
+-- Created on the parent, so every partition (including future ones) gets them
+CREATE INDEX idx_payments_order_id ON payments (order_id);
+CREATE INDEX idx_payments_merchant_created ON payments (merchant_id, created_at);
+CREATE INDEX idx_payments_processing ON payments (status) WHERE status = 'processing';
@@ -0,0 +1,6 @@
+-- Idempotency keys are reserved before the request runs: the row is
+-- inserted with a NULL response, which the request that inserted it fills
+-- in once its response is known. Other nodes see the reservation and wait
+-- instead of running the request a second time.
+
+ALTER TABLE idempotency_keys ALTER COLUMN response_status DROP NOT NULL;
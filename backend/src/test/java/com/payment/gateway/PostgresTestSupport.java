@@ -0,0 +1,58 @@
+package com.payment.gateway;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Base class for tests that need the application on a real PostgreSQL.
+ *
+ * One embedded server is started per JVM and shared; Spring caches the
+ * context across test classes with the same configuration, so the schema is
+ * migrated once. Background polling is slowed down so tests drive the
+ * webhook dispatcher, readiness probe and recovery sweep themselves.
+ * MockMvc is configured here rather than per class so every test shares the
+ * one context.
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "TEST_MODE=true",
+        "TEST_PROCESSING_DELAY=50",
+        "WEBHOOK_POLL_INTERVAL_MS=3600000",
+        "HEALTH_PROBE_INTERVAL_MS=3600000",
+        "PAYMENT_RECOVERY_INTERVAL_MS=3600000",
+        "DB_POOL_MIN_IDLE=2",
+        "logging.level.com.payment=INFO"
+})
+public abstract class PostgresTestSupport {
+
+    private static final EmbeddedPostgres POSTGRES = start();
+
+    private static EmbeddedPostgres start() {
+        try {
+            EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    postgres.close();
+                } catch (IOException e) {
+                    // JVM is exiting anyway
+                }
+            }));
+            return postgres;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+}
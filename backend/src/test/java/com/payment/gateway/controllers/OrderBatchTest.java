@@ -0,0 +1,107 @@
+package com.payment.gateway.controllers;
+
+import com.payment.gateway.PostgresTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class OrderBatchTest extends PostgresTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void wrongTypedItemFailsAlone() throws Exception {
+        String body = """
+                {"orders": [
+                  {"amount": 500, "receipt": "r1", "notes": {"k": "v"}},
+                  {"amount": "abc"},
+                  {"amount": 50},
+                  "not an order",
+                  null
+                ]}
+                """;
+
+        mockMvc.perform(post("/api/v1/orders/batch")
+                        .header("X-Api-Key", "key_test_abc123")
+                        .header("X-Api-Secret", "secret_test_xyz789")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(5))
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.items[0].status").value(201))
+                .andExpect(jsonPath("$.items[0].order.id").value(startsWith("order_")))
+                .andExpect(jsonPath("$.items[0].order.notes.k").value("v"))
+                .andExpect(jsonPath("$.items[1].status").value(400))
+                .andExpect(jsonPath("$.items[1].error.description").value("amount has the wrong type"))
+                .andExpect(jsonPath("$.items[2].error.description").value("amount must be at least 100"))
+                .andExpect(jsonPath("$.items[3].error.description").value("order must be an object"))
+                .andExpect(jsonPath("$.items[4].error.description").value("order must be an object"));
+    }
+
+    @Test
+    void columnLimitsAreCheckedPerItem() throws Exception {
+        String body = """
+                {"orders": [
+                  {"amount": 500, "currency": "INRX"},
+                  {"amount": 500, "receipt": "%s"},
+                  {"amount": 500, "currency": "USD", "receipt": "%s"}
+                ]}
+                """.formatted("r".repeat(256), "r".repeat(255));
+
+        mockMvc.perform(post("/api/v1/orders/batch")
+                        .header("X-Api-Key", "key_test_abc123")
+                        .header("X-Api-Secret", "secret_test_xyz789")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.items[0].status").value(400))
+                .andExpect(jsonPath("$.items[0].error.description").value("currency must be at most 3 characters"))
+                .andExpect(jsonPath("$.items[1].status").value(400))
+                .andExpect(jsonPath("$.items[1].error.description").value("receipt must be at most 255 characters"))
+                .andExpect(jsonPath("$.items[2].status").value(201));
+    }
+
+    @Test
+    void aRowTheDatabaseRejectsFailsAlone() throws Exception {
+        // Postgres refuses NUL in text, which no per-item check catches
+        String body = """
+                {"orders": [
+                  {"amount": 500, "receipt": "r1"},
+                  {"amount": 500, "receipt": "bad\\u0000"},
+                  {"amount": 500, "receipt": "r3"}
+                ]}
+                """;
+
+        mockMvc.perform(post("/api/v1/orders/batch")
+                        .header("X-Api-Key", "key_test_abc123")
+                        .header("X-Api-Secret", "secret_test_xyz789")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.items[0].status").value(201))
+                .andExpect(jsonPath("$.items[1].status").value(500))
+                .andExpect(jsonPath("$.items[1].error.code").value("INTERNAL_ERROR"))
+                .andExpect(jsonPath("$.items[2].status").value(201));
+    }
+
+    @Test
+    void malformedBodyIsRejected() throws Exception {
+        mockMvc.perform(post("/api/v1/orders/batch")
+                        .header("X-Api-Key", "key_test_abc123")
+                        .header("X-Api-Secret", "secret_test_xyz789")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orders\": [{\"amount\": 500}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.code").value("BAD_REQUEST_ERROR"));
+    }
+}
@@ -0,0 +1,160 @@
+package com.payment.gateway.controllers;
+
+import com.payment.gateway.PostgresTestSupport;
+import com.payment.gateway.config.DataSourceConfig;
+import com.payment.gateway.repositories.PaymentQueryRepository;
+import com.payment.gateway.services.IdGenerator;
+import com.payment.gateway.services.PaymentService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PaymentExportTest extends PostgresTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentQueryRepository paymentQueryRepository;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private HikariDataSource dataSource;
+
+    @Autowired
+    @Qualifier("exportDataSource")
+    private HikariDataSource exportDataSource;
+
+    @Autowired
+    @Qualifier("exportExecutor")
+    private ThreadPoolTaskExecutor exportExecutor;
+
+    @Value("${EXPORT_MAX_CONCURRENT:4}")
+    private int maxConcurrentExports;
+
+    @Test
+    void exportsBorrowFromTheirOwnPool() {
+        String merchantId = createMerchant();
+        insertPayment(merchantId);
+        insertPayment(merchantId);
+
+        List<Integer> exportActive = new ArrayList<>();
+        paymentQueryRepository.streamExport(merchantId, null, p ->
+                exportActive.add(exportDataSource.getHikariPoolMXBean().getActiveConnections()));
+
+        assertThat(exportActive).containsExactly(1, 1);
+        assertThat(exportDataSource.getPoolName()).isEqualTo(DataSourceConfig.EXPORT_POOL_NAME);
+        assertThat(exportDataSource.getMaximumPoolSize()).isEqualTo(maxConcurrentExports);
+        assertThat(exportDataSource.getLeakDetectionThreshold()).isGreaterThan(dataSource.getLeakDetectionThreshold());
+        assertThat(dataSource.getPoolName()).isEqualTo("payment-gateway");
+        assertThat(exportExecutor.getMaxPoolSize()).isEqualTo(maxConcurrentExports);
+    }
+
+    @Test
+    void exportsBeyondTheCapAreRefused() throws Exception {
+        for (int i = 0; i < maxConcurrentExports; i++) {
+            paymentService.reserveExport();
+        }
+        try {
+            mockMvc.perform(authenticated())
+                    .andExpect(request().asyncNotStarted())
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(jsonPath("$.error.code").value("SERVICE_UNAVAILABLE_ERROR"));
+        } finally {
+            for (int i = 0; i < maxConcurrentExports; i++) {
+                paymentService.releaseExport();
+            }
+        }
+
+        // A finished export gives its slot back, and every export is
+        // written by the export executor
+        long exportTasks = exportExecutor.getThreadPoolExecutor().getTaskCount();
+        for (int i = 0; i <= maxConcurrentExports; i++) {
+            MvcResult started = mockMvc.perform(authenticated())
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            String body = mockMvc.perform(asyncDispatch(started))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            assertThat(body).startsWith("id,");
+        }
+        assertThat(exportExecutor.getThreadPoolExecutor().getTaskCount())
+                .isEqualTo(exportTasks + maxConcurrentExports + 1);
+    }
+
+    @Test
+    void invalidRequestsAreAnsweredWithoutStreaming() throws Exception {
+        mockMvc.perform(get("/api/v1/payments/export")
+                        .header("X-Api-Key", "key_test_abc123")
+                        .header("X-Api-Secret", "wrong"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.error.code").value("AUTHENTICATION_ERROR"));
+
+        mockMvc.perform(authenticated().param("format", "xml"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.description").value("format must be csv or ndjson"));
+
+        mockMvc.perform(get("/api/v1/payments")
+                        .header("X-Api-Key", "key_test_abc123")
+                        .header("X-Api-Secret", "secret_test_xyz789")
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.code").value("BAD_REQUEST_ERROR"));
+    }
+
+    // ---------------- HELPERS ----------------
+
+    private MockHttpServletRequestBuilder authenticated() {
+        return get("/api/v1/payments/export")
+                .header("X-Api-Key", "key_test_abc123")
+                .header("X-Api-Secret", "secret_test_xyz789");
+    }
+
+    private String createMerchant() {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO merchants (id, name, email, api_key, api_secret_hash, "
+                        + "is_active, created_at, updated_at) "
+                        + "VALUES (?, 'Export Test', ?, ?, 'unused', TRUE, now(), now())",
+                id, id + "@example.com", "key_" + id);
+        return id.toString();
+    }
+
+    private void insertPayment(String merchantId) {
+        String orderId = idGenerator.nextId("order_");
+        jdbcTemplate.update("INSERT INTO orders (id, merchant_id, amount, currency, status, created_at, updated_at) "
+                + "VALUES (?, ?, 50000, 'INR', 'paid', now(), now())", orderId, merchantId);
+        jdbcTemplate.update("INSERT INTO payments (id, order_id, merchant_id, amount, currency, method, status, "
+                        + "vpa, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, 50000, 'INR', 'upi', 'success', 'user@paytm', now(), now())",
+                idGenerator.nextId("pay_"), orderId, merchantId);
+    }
+}
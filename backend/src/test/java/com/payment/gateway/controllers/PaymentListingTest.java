@@ -0,0 +1,136 @@
+package com.payment.gateway.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.gateway.PostgresTestSupport;
+import com.payment.gateway.services.IdGenerator;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PaymentListingTest extends PostgresTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier("mvcAsyncExecutor")
+    private ThreadPoolTaskExecutor mvcAsyncExecutor;
+
+    @Test
+    void pagesFollowTheCursor() throws Exception {
+        Instant from = Instant.now().plus(1, ChronoUnit.DAYS);
+        String oldest = insertPayment(from.plusSeconds(1));
+        String middle = insertPayment(from.plusSeconds(2));
+        String newest = insertPayment(from.plusSeconds(3));
+
+        JsonNode first = list(authenticated().param("from", from.toString()).param("limit", "2"));
+        assertThat(first.get("items")).extracting(item -> item.get("id").asText()).containsExactly(newest, middle);
+        assertThat(first.get("has_more").asBoolean()).isTrue();
+
+        JsonNode second = list(authenticated().param("from", from.toString()).param("limit", "2")
+                .param("cursor", first.get("next_cursor").asText()));
+        assertThat(second.get("items")).extracting(item -> item.get("id").asText()).containsExactly(oldest);
+        assertThat(second.get("has_more").asBoolean()).isFalse();
+        assertThat(second.get("next_cursor").isNull()).isTrue();
+    }
+
+    @Test
+    void fullExecutorAnswers503() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        int capacity = mvcAsyncExecutor.getMaxPoolSize() + mvcAsyncExecutor.getQueueCapacity();
+        try {
+            for (int i = 0; i < capacity; i++) {
+                mvcAsyncExecutor.execute(() -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+
+            MvcResult started = mockMvc.perform(authenticated()).andReturn();
+            assertThat(WebAsyncUtils.getAsyncManager(started.getRequest()).getConcurrentResult())
+                    .isInstanceOf(TaskRejectedException.class);
+            mockMvc.perform(rejectedDispatch(started))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(jsonPath("$.error.code").value("SERVICE_UNAVAILABLE_ERROR"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    // ---------------- HELPERS ----------------
+
+    private MockHttpServletRequestBuilder authenticated() {
+        return get("/api/v1/payments")
+                .header("X-Api-Key", "key_test_abc123")
+                .header("X-Api-Secret", "secret_test_xyz789");
+    }
+
+    // asyncDispatch waits for a result that interceptors never see when the
+    // executor refuses the task, so the dispatch is rebuilt by hand
+    private static RequestBuilder rejectedDispatch(MvcResult started) {
+        return servletContext -> {
+            MockHttpServletRequest request = started.getRequest();
+            request.setDispatcherType(DispatcherType.ASYNC);
+            request.setAsyncStarted(false);
+            return request;
+        };
+    }
+
+    private JsonNode list(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult started = mockMvc.perform(request).andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private String insertPayment(Instant createdAt) {
+        String merchantId = jdbcTemplate.queryForObject(
+                "SELECT id::text FROM merchants WHERE api_key = 'key_test_abc123'", String.class);
+        String orderId = idGenerator.nextId("order_");
+        String paymentId = idGenerator.nextId("pay_");
+        Timestamp at = Timestamp.from(createdAt);
+
+        jdbcTemplate.update("INSERT INTO orders (id, merchant_id, amount, currency, status, created_at, updated_at) "
+                + "VALUES (?, ?, 50000, 'INR', 'paid', ?, ?)", orderId, merchantId, at, at);
+        jdbcTemplate.update("INSERT INTO payments (id, order_id, merchant_id, amount, currency, method, status, "
+                        + "vpa, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, 50000, 'INR', 'upi', 'success', 'user@paytm', ?, ?)",
+                paymentId, orderId, merchantId, at, at);
+        return paymentId;
+    }
+}
@@ -0,0 +1,53 @@
+package com.payment.gateway.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.gateway.models.Payment;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PublicPaymentResponseTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static Payment payment(String status) {
+        Payment p = new Payment();
+        p.setId("pay_14jq95r80000amrf");
+        p.setOrderId("order_14jq95mj000088jp");
+        p.setMerchantId("550e8400-e29b-41d4-a716-446655440000");
+        p.setAmount(50000);
+        p.setCurrency("INR");
+        p.setMethod("card");
+        p.setStatus(status);
+        p.setCardNetwork("visa");
+        p.setCardLast4("1111");
+        p.setCreatedAt(Instant.now());
+        p.setUpdatedAt(Instant.now());
+        return p;
+    }
+
+    @Test
+    void successExposesOnlyIdAndStatus() throws Exception {
+        JsonNode json = objectMapper.readTree(
+                objectMapper.writeValueAsString(new PublicPaymentResponse(payment("success"))));
+
+        assertThat(json.fieldNames()).toIterable().containsExactly("id", "status");
+        assertThat(json.get("status").asText()).isEqualTo("success");
+    }
+
+    @Test
+    void failureAddsErrorFields() throws Exception {
+        Payment p = payment("failed");
+        p.setErrorCode("PAYMENT_FAILED");
+        p.setErrorDescription("Payment processing failed");
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(new PublicPaymentResponse(p)));
+
+        assertThat(json.fieldNames()).toIterable()
+                .containsExactly("id", "status", "error_code", "error_description");
+        assertThat(json.get("error_description").asText()).isEqualTo("Payment processing failed");
+    }
+}
@@ -0,0 +1,63 @@
+package com.payment.gateway.services;
+
+import com.payment.gateway.models.Merchant;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CredentialVerifierTest {
+
+    private final AtomicInteger fullChecks = new AtomicInteger();
+
+    private final SecretHasher hasher = new SecretHasher(1000) {
+        @Override
+        public boolean matches(String secret, String encoded) {
+            fullChecks.incrementAndGet();
+            return super.matches(secret, encoded);
+        }
+    };
+
+    private final CredentialVerifier verifier = new CredentialVerifier(hasher, 100, 60, 100, 60);
+
+    private Merchant merchant(String secret) {
+        Merchant merchant = new Merchant();
+        merchant.setApiKey("key_test_verifier");
+        merchant.setApiSecretHash(hasher.hash(secret));
+        return merchant;
+    }
+
+    @Test
+    void correctSecretIsHashedOncePerWindow() {
+        Merchant merchant = merchant("secret_right");
+
+        assertThat(verifier.verify(merchant, "secret_right")).isTrue();
+        assertThat(verifier.verify(merchant, "secret_right")).isTrue();
+        assertThat(fullChecks.get()).isEqualTo(1);
+    }
+
+    @Test
+    void wrongSecretIsHashedOncePerWindow() {
+        Merchant merchant = merchant("secret_right");
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(verifier.verify(merchant, "secret_wrong")).isFalse();
+        }
+        assertThat(fullChecks.get()).isEqualTo(1);
+
+        // A different wrong secret is a separate entry
+        assertThat(verifier.verify(merchant, "secret_other")).isFalse();
+        assertThat(fullChecks.get()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectionDoesNotOutliveARotation() {
+        Merchant merchant = merchant("secret_old");
+        assertThat(verifier.verify(merchant, "secret_new")).isFalse();
+
+        merchant.setApiSecretHash(hasher.hash("secret_new"));
+
+        assertThat(verifier.verify(merchant, "secret_new")).isTrue();
+    }
+}
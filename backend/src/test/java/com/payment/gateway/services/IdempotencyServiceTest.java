@@ -0,0 +1,152 @@
+package com.payment.gateway.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.gateway.PostgresTestSupport;
+import com.payment.gateway.repositories.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyServiceTest extends PostgresTestSupport {
+
+    private static final Map<String, String> REQUEST = Map.of("amount", "500");
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // A separate instance per simulated node: no shared LRU or in-flight map
+    private IdempotencyService newNode() {
+        return new IdempotencyService(recordRepository, objectMapper, 100, 24, 5000, 300000);
+    }
+
+    @Test
+    void concurrentRequestsOnTwoNodesRunTheActionOnce() throws Exception {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Supplier<ResponseEntity<?>> action = () -> {
+            runs.incrementAndGet();
+            sleep(300);
+            return ResponseEntity.status(201).body(Map.of("id", "order_" + runs.get()));
+        };
+
+        List<IdempotencyService> nodes = List.of(newNode(), newNode());
+        ExecutorService pool = Executors.newFixedThreadPool(nodes.size());
+        try {
+            List<Future<ResponseEntity<?>>> results = nodes.stream()
+                    .map(node -> pool.<ResponseEntity<?>>submit(() -> {
+                        start.await();
+                        return node.execute("merchant:orders", key, REQUEST, action);
+                    }))
+                    .toList();
+            start.countDown();
+
+            ResponseEntity<?> first = results.get(0).get();
+            ResponseEntity<?> second = results.get(1).get();
+
+            assertThat(runs.get()).isEqualTo(1);
+            assertThat(first.getStatusCode().value()).isEqualTo(201);
+            assertThat(second.getStatusCode().value()).isEqualTo(201);
+            String replayed = first.getHeaders().containsKey("Idempotent-Replayed")
+                    ? (String) first.getBody()
+                    : (String) second.getBody();
+            assertThat(replayed).isEqualTo("{\"id\":\"order_1\"}");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void retryAfterCompletionReplaysStoredResponse() {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger runs = new AtomicInteger();
+        Supplier<ResponseEntity<?>> action = () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.status(201).body(Map.of("id", "order_1"));
+        };
+
+        newNode().execute("merchant:orders", key, REQUEST, action);
+        ResponseEntity<?> retry = newNode().execute("merchant:orders", key, REQUEST, action);
+
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(retry.getStatusCode().value()).isEqualTo(201);
+        assertThat(retry.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+    }
+
+    @Test
+    void serverErrorReleasesTheKeyForRetry() {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger runs = new AtomicInteger();
+        Supplier<ResponseEntity<?>> action = () -> runs.incrementAndGet() == 1
+                ? ResponseEntity.status(503).body(Map.of("error", "busy"))
+                : ResponseEntity.status(201).body(Map.of("id", "order_1"));
+
+        IdempotencyService node = newNode();
+        assertThat(node.execute("merchant:orders", key, REQUEST, action).getStatusCode().value()).isEqualTo(503);
+        assertThat(node.execute("merchant:orders", key, REQUEST, action).getStatusCode().value()).isEqualTo(201);
+        assertThat(runs.get()).isEqualTo(2);
+    }
+
+    @Test
+    void reusedKeyWithDifferentRequestIsRejected() {
+        String key = UUID.randomUUID().toString();
+        Supplier<ResponseEntity<?>> action = () -> ResponseEntity.status(201).body(Map.of("id", "order_1"));
+
+        newNode().execute("merchant:orders", key, REQUEST, action);
+        ResponseEntity<?> reused = newNode().execute("merchant:orders", key, Map.of("amount", "900"), action);
+
+        assertThat(reused.getStatusCode().value()).isEqualTo(422);
+    }
+
+    @Test
+    void staleReservationIsTakenOver() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String id = sha256("merchant:orders\n" + key);
+        String requestHash = sha256(objectMapper.writeValueAsString(REQUEST));
+        // Left behind by a node that stopped before storing its response
+        recordRepository.reserve(id, "merchant:orders", key, requestHash, Instant.now().minusSeconds(60));
+
+        AtomicInteger runs = new AtomicInteger();
+        IdempotencyService node = new IdempotencyService(recordRepository, objectMapper, 100, 24, 5000, 1000);
+        ResponseEntity<?> response = node.execute("merchant:orders", key, REQUEST, () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.status(201).body(Map.of("id", "order_1"));
+        });
+
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(response.getStatusCode().value()).isEqualTo(201);
+        assertThat(recordRepository.findById(id).orElseThrow().getResponseStatus()).isEqualTo(201);
+    }
+
+    private static String sha256(String value) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
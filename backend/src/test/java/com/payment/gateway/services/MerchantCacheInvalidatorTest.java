@@ -0,0 +1,79 @@
+package com.payment.gateway.services;
+
+import com.payment.gateway.PostgresTestSupport;
+import com.payment.gateway.models.Merchant;
+import com.payment.gateway.repositories.MerchantRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MerchantCacheInvalidatorTest extends PostgresTestSupport {
+
+    @Autowired
+    private MerchantCredentialCache credentialCache;
+
+    @Autowired
+    private MerchantCacheInvalidator invalidator;
+
+    @Autowired
+    private MerchantRepository merchantRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void aMissDuringTheTransactionCannotKeepTheOldRow() {
+        String apiKey = createMerchant();
+        assertThat(cached(apiKey).getIsActive()).isTrue();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+            Merchant merchant = merchantRepository.findByApiKey(apiKey).orElseThrow();
+            merchant.setIsActive(false);
+            merchantRepository.saveAndFlush(merchant);
+
+            // Another request looks the key up while the change is flushed
+            // but not yet committed, and can only see the old row
+            Merchant seen = CompletableFuture.supplyAsync(() -> cached(apiKey)).join();
+            assertThat(seen.getIsActive()).isTrue();
+        });
+
+        assertThat(cached(apiKey).getIsActive()).isFalse();
+    }
+
+    @Test
+    void changesOutsideATransactionAreEvictedAtOnce() {
+        String apiKey = createMerchant();
+        Merchant merchant = cached(apiKey);
+
+        merchant.setIsActive(false);
+        invalidator.onChange(merchant);
+
+        assertThat(credentialCache.getMerchantCache().getIfPresent(apiKey)).isNull();
+    }
+
+    // ---------------- HELPERS ----------------
+
+    private Merchant cached(String apiKey) {
+        return credentialCache.get(apiKey, merchantRepository::findByApiKey).orElseThrow();
+    }
+
+    private String createMerchant() {
+        UUID id = UUID.randomUUID();
+        String apiKey = "key_" + id;
+        jdbcTemplate.update("INSERT INTO merchants (id, name, email, api_key, api_secret_hash, "
+                        + "is_active, created_at, updated_at) "
+                        + "VALUES (?, 'Cache Test', ?, ?, 'unused', TRUE, now(), now())",
+                id, id + "@example.com", apiKey);
+        return apiKey;
+    }
+}
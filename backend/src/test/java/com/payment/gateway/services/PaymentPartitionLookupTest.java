@@ -0,0 +1,140 @@
+package com.payment.gateway.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.gateway.PostgresTestSupport;
+import com.payment.gateway.models.Payment;
+import com.payment.gateway.repositories.PaymentQueryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PaymentPartitionLookupTest extends PostgresTestSupport {
+
+    private static final Pattern PARTITION = Pattern.compile("payments_p\\d{6}");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void paymentIsCreatedFinishedAndFoundById() throws Exception {
+        String orderId = json(authenticated(post("/api/v1/orders"))
+                .content("{\"amount\": 50000}")).get("id").asText();
+        String paymentId = json(authenticated(post("/api/v1/payments"))
+                .content("{\"order_id\": \"" + orderId + "\", \"method\": \"upi\", \"vpa\": \"user@paytm\"}"))
+                .get("id").asText();
+
+        Payment payment = awaitFinished(paymentId);
+
+        assertThat(payment.getStatus()).isEqualTo("success");
+        String body = mockMvc.perform(authenticated(get("/api/v1/payments/" + paymentId)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(objectMapper.readTree(body).get("status").asText()).isEqualTo("success");
+    }
+
+    @Test
+    void lookupByIdTouchesOnlyNearbyPartitions() {
+        String id = idGenerator.nextId("pay_");
+        Instant issuedAt = idGenerator.timestampOf(id).orElseThrow();
+
+        List<String> bounded = jdbcTemplate.queryForList("EXPLAIN SELECT * FROM payments WHERE id = '" + id
+                + "' AND created_at >= '" + issuedAt.minus(Duration.ofDays(1))
+                + "' AND created_at < '" + issuedAt.plus(Duration.ofDays(1)) + "'", String.class);
+        List<String> unbounded = jdbcTemplate.queryForList(
+                "EXPLAIN SELECT * FROM payments WHERE id = '" + id + "'", String.class);
+
+        assertThat(partitions(bounded)).isBetween(1L, 2L);
+        assertThat(partitions(unbounded)).isGreaterThan(partitions(bounded));
+    }
+
+    @Test
+    void bulkStatusesAreFoundWithAndWithoutIdTimestamps() {
+        String merchantId = jdbcTemplate.queryForObject(
+                "SELECT id::text FROM merchants WHERE api_key = 'key_test_abc123'", String.class);
+        String timed = idGenerator.nextId("pay_");
+        String legacy = "pay_legacy" + System.nanoTime();
+        insertPayment(merchantId, timed, idGenerator.timestampOf(timed).orElseThrow());
+        insertPayment(merchantId, legacy, Instant.now());
+
+        List<String> found = paymentService.findStatuses(merchantId,
+                        List.of(timed, legacy, idGenerator.nextId("pay_"))).stream()
+                .map(PaymentQueryRepository.StatusView::id)
+                .toList();
+
+        assertThat(found).containsExactlyInAnyOrder(timed, legacy);
+    }
+
+    // ---------------- HELPERS ----------------
+
+    private void insertPayment(String merchantId, String paymentId, Instant createdAt) {
+        String orderId = idGenerator.nextId("order_");
+        Timestamp at = Timestamp.from(createdAt);
+        jdbcTemplate.update("INSERT INTO orders (id, merchant_id, amount, currency, status, created_at, updated_at) "
+                + "VALUES (?, ?, 50000, 'INR', 'paid', ?, ?)", orderId, merchantId, at, at);
+        jdbcTemplate.update("INSERT INTO payments (id, order_id, merchant_id, amount, currency, method, status, "
+                        + "vpa, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, 50000, 'INR', 'upi', 'success', 'user@paytm', ?, ?)",
+                paymentId, orderId, merchantId, at, at);
+    }
+
+    private MockHttpServletRequestBuilder authenticated(MockHttpServletRequestBuilder request) {
+        return request.header("X-Api-Key", "key_test_abc123")
+                .header("X-Api-Secret", "secret_test_xyz789")
+                .contentType(MediaType.APPLICATION_JSON);
+    }
+
+    private JsonNode json(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request)
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private Payment awaitFinished(String paymentId) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (true) {
+            Payment payment = paymentService.findPayment(paymentId).orElseThrow();
+            if (!"processing".equals(payment.getStatus()) || System.nanoTime() > deadline) {
+                return payment;
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static long partitions(List<String> plan) {
+        return plan.stream()
+                .map(PARTITION::matcher)
+                .flatMap(Matcher::results)
+                .map(m -> m.group())
+                .distinct()
+                .count();
+    }
+}
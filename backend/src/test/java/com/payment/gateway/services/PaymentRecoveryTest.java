@@ -0,0 +1,119 @@
+package com.payment.gateway.services;
+
+import com.payment.gateway.PostgresTestSupport;
+import com.payment.gateway.repositories.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentRecoveryTest extends PostgresTestSupport {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void stalePaymentsAreResumedOnceAndFreshOnesLeftAlone() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        String stale = insertProcessing(now.minus(Duration.ofHours(1)));
+        String fresh = insertProcessing(now);
+
+        // Two nodes sweeping at the same time
+        CompletableFuture.allOf(
+                CompletableFuture.runAsync(paymentService::recoverStalePayments),
+                CompletableFuture.runAsync(paymentService::recoverStalePayments)).join();
+
+        assertThat(awaitStatus(stale)).isEqualTo("success");
+        assertThat(orderStatus(stale)).isEqualTo("paid");
+        assertThat(outboxEvents(stale)).isEqualTo(1);
+
+        assertThat(status(fresh)).isEqualTo("processing");
+        assertThat(orderStatus(fresh)).isEqualTo("attempted");
+        assertThat(outboxEvents(fresh)).isZero();
+    }
+
+    @Test
+    void onlyTheFirstResultIsWritten() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        String id = insertProcessing(now);
+
+        assertThat(paymentRepository.updateResult(id, now, "success", null, null, Instant.now())).isEqualTo(1);
+        assertThat(paymentRepository.updateResult(id, now, "failed", "PROCESSOR_ERROR", "late", Instant.now()))
+                .isZero();
+        assertThat(status(id)).isEqualTo("success");
+    }
+
+    @Test
+    void aStalePaymentCanBeClaimedOnce() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        String id = insertProcessing(now.minus(Duration.ofHours(1)));
+        Instant staleBefore = now.minus(Duration.ofMinutes(5));
+
+        assertThat(paymentRepository.claimStale(id, now.minus(Duration.ofHours(1)), staleBefore, now)).isEqualTo(1);
+        assertThat(paymentRepository.claimStale(id, now.minus(Duration.ofHours(1)), staleBefore, now)).isZero();
+    }
+
+    // ---------------- HELPERS ----------------
+
+    private String insertProcessing(Instant createdAt) {
+        String merchantId = jdbcTemplate.queryForObject(
+                "SELECT id::text FROM merchants WHERE api_key = 'key_test_abc123'", String.class);
+        String orderId = idGenerator.nextId("order_");
+        String paymentId = idGenerator.nextId("pay_");
+        Timestamp at = Timestamp.from(createdAt);
+
+        jdbcTemplate.update("INSERT INTO orders (id, merchant_id, amount, currency, status, created_at, updated_at) "
+                + "VALUES (?, ?, 50000, 'INR', 'attempted', ?, ?)", orderId, merchantId, at, at);
+        jdbcTemplate.update("INSERT INTO payments (id, order_id, merchant_id, amount, currency, method, status, "
+                        + "vpa, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, 50000, 'INR', 'upi', 'processing', 'user@paytm', ?, ?)",
+                paymentId, orderId, merchantId, at, at);
+        return paymentId;
+    }
+
+    private String status(String paymentId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM payments WHERE id = ?", String.class, paymentId);
+    }
+
+    private String orderStatus(String paymentId) {
+        return jdbcTemplate.queryForObject("SELECT o.status FROM orders o JOIN payments p ON p.order_id = o.id "
+                + "WHERE p.id = ?", String.class, paymentId);
+    }
+
+    private int outboxEvents(String paymentId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM webhook_outbox WHERE payment_id = ?",
+                Integer.class, paymentId);
+    }
+
+    private String awaitStatus(String paymentId) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (true) {
+            String status = status(paymentId);
+            if (!"processing".equals(status) || System.nanoTime() > deadline) {
+                return status;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
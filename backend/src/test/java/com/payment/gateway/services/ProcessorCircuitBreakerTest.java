@@ -0,0 +1,87 @@
+package com.payment.gateway.services;
+
+import org.junit.jupiter.api.Test;
+
+import static com.payment.gateway.services.ProcessorCircuitBreaker.NOT_TRIAL;
+import static com.payment.gateway.services.ProcessorCircuitBreaker.REFUSED;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProcessorCircuitBreakerTest {
+
+    // Opens after two failures out of two, and goes half open at once
+    private final ProcessorCircuitBreaker breaker = new ProcessorCircuitBreaker("test", 0.5, 2, 2, 0, 2);
+
+    @Test
+    void callsAdmittedWhileClosedDoNotCountAsTrials() {
+        long lateSuccess = breaker.tryAcquire();
+        long lateFailure = breaker.tryAcquire();
+        open();
+
+        long trial = breaker.tryAcquire();
+        assertThat(breaker.getState()).isEqualTo(ProcessorCircuitBreaker.State.HALF_OPEN);
+
+        breaker.record(false, lateSuccess);
+        breaker.record(false, trial);
+        breaker.record(true, lateFailure);
+        assertThat(breaker.getState()).isEqualTo(ProcessorCircuitBreaker.State.HALF_OPEN);
+
+        breaker.record(false, breaker.tryAcquire());
+        assertThat(breaker.getState()).isEqualTo(ProcessorCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void callsWithoutATrialPermitAreIgnoredWhileHalfOpen() {
+        open();
+        long trial = breaker.tryAcquire();
+
+        breaker.record(true, NOT_TRIAL);
+        breaker.record(false, NOT_TRIAL);
+        breaker.record(false, NOT_TRIAL);
+        assertThat(breaker.getState()).isEqualTo(ProcessorCircuitBreaker.State.HALF_OPEN);
+
+        breaker.record(false, trial);
+        breaker.record(false, breaker.tryAcquire());
+        assertThat(breaker.getState()).isEqualTo(ProcessorCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void trialsOfAnEarlierGenerationAreIgnored() {
+        open();
+        long failed = breaker.tryAcquire();
+        long stale = breaker.tryAcquire();
+        breaker.record(true, failed);
+
+        long trial = breaker.tryAcquire();
+        assertThat(trial).isNotEqualTo(stale);
+
+        // Neither its outcome nor its release touches the new generation
+        breaker.release(stale);
+        breaker.record(false, stale);
+        breaker.record(false, trial);
+        assertThat(breaker.getState()).isEqualTo(ProcessorCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isNotEqualTo(REFUSED);
+        assertThat(breaker.tryAcquire()).isEqualTo(REFUSED);
+    }
+
+    @Test
+    void aReleasedTrialCanBeIssuedAgain() {
+        open();
+        long first = breaker.tryAcquire();
+        long second = breaker.tryAcquire();
+        assertThat(breaker.tryAcquire()).isEqualTo(REFUSED);
+
+        breaker.release(second);
+        long again = breaker.tryAcquire();
+        assertThat(again).isEqualTo(first);
+
+        breaker.record(false, first);
+        breaker.record(false, again);
+        assertThat(breaker.getState()).isEqualTo(ProcessorCircuitBreaker.State.CLOSED);
+    }
+
+    private void open() {
+        breaker.record(true, breaker.tryAcquire());
+        breaker.record(true, breaker.tryAcquire());
+        assertThat(breaker.getState()).isEqualTo(ProcessorCircuitBreaker.State.OPEN);
+    }
+}
@@ -0,0 +1,98 @@
+package com.payment.gateway.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightLoaderTest {
+
+    private final SingleFlightLoader<String, String> loads = new SingleFlightLoader<>();
+    private final Map<String, String> stored = new ConcurrentHashMap<>();
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> loads.load("order_1", key -> {
+                    calls.incrementAndGet();
+                    await(release);
+                    return "snapshot";
+                }, stored::put)));
+            }
+            // Give every caller time to reach the in-flight load
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("snapshot");
+            }
+            assertThat(calls.get()).isEqualTo(1);
+            assertThat(stored).containsEntry("order_1", "snapshot");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void loadForgottenMidwayIsNotStored() {
+        String value = loads.load("order_1", key -> {
+            loads.forget(key); // an invalidation while the row was being read
+            return "stale";
+        }, stored::put);
+
+        assertThat(value).isEqualTo("stale");
+        assertThat(stored).isEmpty();
+    }
+
+    @Test
+    void failureReachesWaitersAndIsNotRemembered() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = pool.submit(() -> loads.load("order_1", key -> {
+                await(release);
+                throw new IllegalStateException("database down");
+            }, stored::put));
+            Thread.sleep(100);
+
+            Future<String> waiter = pool.submit(() ->
+                    loads.load("order_1", key -> "unexpected", stored::put));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+                    .hasRootCauseMessage("database down");
+            assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+                    .hasRootCauseMessage("database down");
+            assertThat(loads.load("order_1", key -> "snapshot", stored::put)).isEqualTo("snapshot");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.payment.gateway.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedIdGeneratorTest {
+
+    private final TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(7);
+
+    @Test
+    void idsAreIncreasingAndFitTheColumn() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(generator.nextId("order_"));
+        }
+
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+        assertThat(ids).allSatisfy(id -> {
+            assertThat(id).matches("order_[0-9a-z]{29}");
+            assertThat(id.length()).isLessThanOrEqualTo(64);
+        });
+    }
+
+    @Test
+    void randomSuffixDiffersWithinAMillisecond() {
+        Set<String> suffixes = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            suffixes.add(generator.nextId("pay_").substring(4 + 16));
+        }
+
+        assertThat(suffixes).hasSize(1000);
+    }
+
+    @Test
+    void timestampIsReadBackFromTheId() {
+        Instant before = Instant.ofEpochMilli(System.currentTimeMillis());
+        String id = generator.nextId("pay_");
+        Instant after = Instant.ofEpochMilli(System.currentTimeMillis());
+
+        assertThat(generator.timestampOf(id)).hasValueSatisfying(t -> assertThat(t).isBetween(before, after));
+    }
+
+    @Test
+    void idsOfOtherFormatsHaveNoTimestamp() {
+        assertThat(generator.timestampOf("pay_Ab3xY9kLmN2pQr7s")).isEmpty();
+        assertThat(generator.timestampOf("pay_14jq95r80000amrf")).isEmpty();
+        assertThat(generator.timestampOf("pay_14JQ95R8" + "0".repeat(21))).isEmpty();
+    }
+}
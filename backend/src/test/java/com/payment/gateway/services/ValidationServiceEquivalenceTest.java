@@ -0,0 +1,182 @@
+package com.payment.gateway.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the single-pass ValidationService and the regex rules it replaced
+ * over the same generated inputs and checks they agree on every one. The
+ * inputs are seeded, so a failure names an input that reproduces.
+ */
+class ValidationServiceEquivalenceTest {
+
+    private static final long SEED = 20_240_611L;
+    private static final int SAMPLES = 20_000;
+
+    private static final String VPA_LOCAL = "abcxyzABCXYZ0189._-";
+    private static final String VPA_DOMAIN = "abcxyzABCXYZ0189";
+    // Characters either side may get wrong: regex metacharacters, line
+    // terminators and non-ASCII letters and digits
+    private static final String NOISE = "@ +#$^*/\\\t\n\r\u0085\u2028\u2029\u00a0\u00e9\u0663\uff11";
+    private static final String[] BINS = {
+            "", "0", "1", "2", "3", "34", "35", "37", "4", "40", "5", "50", "51", "53", "55", "56",
+            "6", "60", "61", "65", "7", "8", "80", "81", "85", "89", "9"
+    };
+
+    private final ValidationService current = new ValidationService();
+    private final RegexValidationService regex = new RegexValidationService();
+    private final Random random = new Random(SEED);
+
+    @Test
+    void vpaRulesAgree() {
+        List<String> inputs = new ArrayList<>(List.of("", "@", "a@", "@b", "a@b", "a@@b", "a@b.c", "a.b-c_d@bank"));
+        for (int i = 0; i < SAMPLES; i++) {
+            String vpa = randomString(VPA_LOCAL, 0, 8) + (random.nextInt(10) == 0 ? "" : "@")
+                    + randomString(VPA_DOMAIN, 0, 8);
+            inputs.add(random.nextInt(3) == 0 ? corrupt(vpa) : vpa);
+        }
+
+        assertThat(current.isValidVpa(null)).isEqualTo(regex.isValidVpa(null));
+        for (String vpa : inputs) {
+            assertThat(current.isValidVpa(vpa)).as("isValidVpa(%s)", quote(vpa))
+                    .isEqualTo(regex.isValidVpa(vpa));
+        }
+    }
+
+    @Test
+    void cardNumberRulesAgree() {
+        List<String> inputs = new ArrayList<>(List.of("", " ", "-", "0", "4111111111111111", "4111 1111 1111 1111"));
+        for (int i = 0; i < SAMPLES; i++) {
+            String digits = randomCardDigits();
+            String card = withSeparators(digits);
+            inputs.add(random.nextInt(4) == 0 ? corrupt(card) : card);
+        }
+
+        assertThat(current.isValidCardNumber(null)).isEqualTo(regex.isValidCardNumber(null));
+        for (String card : inputs) {
+            assertThat(current.isValidCardNumber(card)).as("isValidCardNumber(%s)", quote(card))
+                    .isEqualTo(regex.isValidCardNumber(card));
+        }
+    }
+
+    @Test
+    void cardNetworkRulesAgree() {
+        List<String> inputs = new ArrayList<>(List.of("", " ", "-", "4", "5", "51", "3", "37", "8", "81\n", "4\n"));
+        for (String bin : BINS) {
+            inputs.add(bin);
+            inputs.add(bin + "1234");
+        }
+        for (int i = 0; i < SAMPLES; i++) {
+            String bin = BINS[random.nextInt(BINS.length)];
+            String card = withSeparators(bin + randomString("0123456789", 0, 17));
+            inputs.add(random.nextInt(3) == 0 ? corrupt(card) : card);
+        }
+
+        for (String card : inputs) {
+            assertThat(current.detectCardNetwork(card)).as("detectCardNetwork(%s)", quote(card))
+                    .isEqualTo(regex.detectCardNetwork(card));
+        }
+    }
+
+    @Test
+    void expiryRulesAgree() {
+        int thisYear = YearMonth.now().getYear();
+        List<String> months = new ArrayList<>(List.of("0", "1", "01", "6", "12", "13", "-1", "+1", " 1", "1a", "", "\u0663"));
+        List<String> years = new ArrayList<>(List.of("", "0", "00", "-1", "+30", "2x", "\u0662\u0660\u0663\u0660"));
+        for (int offset = -3; offset <= 3; offset++) {
+            int year = thisYear + offset;
+            years.add(Integer.toString(year));
+            years.add(String.format("%02d", year % 100));
+        }
+        for (int i = 0; i < 200; i++) {
+            months.add(Integer.toString(random.nextInt(20) - 3));
+            years.add(Integer.toString(random.nextInt(10_000)));
+        }
+        months.add(null);
+        years.add(null);
+
+        for (String month : months) {
+            for (String year : years) {
+                assertThat(current.isValidExpiry(month, year))
+                        .as("isValidExpiry(%s, %s)", quote(month), quote(year))
+                        .isEqualTo(regex.isValidExpiry(month, year));
+            }
+        }
+    }
+
+    // ---------------- GENERATORS ----------------
+
+    // 10 to 22 digits, half of them with a correct Luhn check digit
+    private String randomCardDigits() {
+        String body = BINS[random.nextInt(BINS.length)] + randomString("0123456789", 9, 21);
+        if (random.nextBoolean()) {
+            return body + random.nextInt(10);
+        }
+        return body + luhnCheckDigit(body);
+    }
+
+    private String withSeparators(String digits) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < digits.length(); i++) {
+            if (random.nextInt(6) == 0) {
+                sb.append(random.nextBoolean() ? ' ' : '-');
+            }
+            sb.append(digits.charAt(i));
+        }
+        return sb.toString();
+    }
+
+    // Inserts, replaces or deletes one character
+    private String corrupt(String s) {
+        StringBuilder sb = new StringBuilder(s);
+        int at = random.nextInt(sb.length() + 1);
+        char noise = NOISE.charAt(random.nextInt(NOISE.length()));
+        switch (at == sb.length() ? 0 : random.nextInt(3)) {
+            case 0 -> sb.insert(at, noise);
+            case 1 -> sb.setCharAt(at, noise);
+            default -> sb.deleteCharAt(at);
+        }
+        return sb.toString();
+    }
+
+    private String randomString(String alphabet, int minLength, int maxLength) {
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+
+    private static int luhnCheckDigit(String body) {
+        int sum = 0;
+        for (int i = body.length() - 1, position = 1; i >= 0; i--, position++) {
+            int n = body.charAt(i) - '0';
+            if ((position & 1) == 1) {
+                n *= 2;
+                if (n > 9) n -= 9;
+            }
+            sum += n;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    private static String quote(String s) {
+        if (s == null) return "null";
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            if (c < 0x20 || c > 0x7e) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,238 @@
+package com.payment.gateway.services;
+
+import com.payment.gateway.PostgresTestSupport;
+import com.payment.gateway.models.WebhookOutboxEvent;
+import com.payment.gateway.repositories.MerchantRepository;
+import com.payment.gateway.repositories.WebhookOutboxRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.sql.DataSource;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives a dispatcher built with small limits against a stub receiver on a
+ * local port. The context's own dispatcher polls once an hour here, so it
+ * does not race these tests for rows.
+ */
+class WebhookDispatcherTest extends PostgresTestSupport {
+
+    private static final String SECRET = "whsec_dispatcher_test";
+    private static final long RETRY_BASE_MS = 1000;
+
+    private record Received(Map<String, String> headers, String body) { }
+
+    @Autowired
+    private WebhookOutboxRepository outboxRepository;
+
+    @Autowired
+    private MerchantRepository merchantRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private HttpServer receiver;
+    private final List<Received> received = new CopyOnWriteArrayList<>();
+    private final AtomicInteger responseStatus = new AtomicInteger(200);
+    private WebhookDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        receiver = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        receiver.createContext("/webhook", exchange -> {
+            Map<String, String> headers = Map.of(
+                    "id", exchange.getRequestHeaders().getFirst("X-Webhook-Id"),
+                    "signature", exchange.getRequestHeaders().getFirst("X-Webhook-Signature"),
+                    "timestamp", exchange.getRequestHeaders().getFirst("X-Webhook-Timestamp"));
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            received.add(new Received(headers, body));
+            exchange.sendResponseHeaders(responseStatus.get(), -1);
+            exchange.close();
+        });
+        receiver.start();
+
+        // Concurrency 1 per merchant, so a leaked permit blocks the next delivery
+        dispatcher = new WebhookDispatcher(outboxRepository, merchantRepository, transactionManager,
+                100, 1, 3, RETRY_BASE_MS, 60_000, false, 2000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        receiver.stop(0);
+    }
+
+    @Test
+    void deliversWithVerifiableSignature() throws Exception {
+        UUID merchantId = createMerchant(SECRET);
+        long id = enqueue(merchantId);
+
+        dispatcher.dispatchDue();
+        WebhookOutboxEvent event = awaitRow(id, e -> !"pending".equals(e.getStatus()));
+
+        assertThat(event.getStatus()).isEqualTo("delivered");
+        assertThat(event.getAttempts()).isEqualTo(1);
+        assertThat(received).hasSize(1);
+        Received request = received.get(0);
+        String timestamp = request.headers().get("timestamp");
+        assertThat(request.headers().get("id")).isEqualTo(Long.toString(id));
+        assertThat(request.headers().get("signature"))
+                .isEqualTo("t=" + timestamp + ",v1=" + hmac(SECRET, timestamp + "." + request.body()));
+    }
+
+    @Test
+    void failedDeliveriesBackOffThenFail() {
+        responseStatus.set(500);
+        UUID merchantId = createMerchant(SECRET);
+        long id = enqueue(merchantId);
+
+        for (int attempt = 1; attempt <= 2; attempt++) {
+            Instant before = Instant.now();
+            dispatcher.dispatchDue();
+            int expectedAttempts = attempt;
+            WebhookOutboxEvent event = awaitRow(id, e -> e.getAttempts() == expectedAttempts);
+
+            // base * 2^(attempt-1), minus up to 20% jitter
+            long delay = RETRY_BASE_MS << (attempt - 1);
+            assertThat(event.getStatus()).isEqualTo("pending");
+            assertThat(event.getLastError()).isEqualTo("HTTP 500");
+            assertThat(event.getNextAttemptAt())
+                    .isAfterOrEqualTo(before.plusMillis(delay - delay / 5))
+                    .isBeforeOrEqualTo(Instant.now().plusMillis(delay));
+
+            makeDue(id);
+        }
+
+        dispatcher.dispatchDue();
+        WebhookOutboxEvent event = awaitRow(id, e -> !"pending".equals(e.getStatus()));
+
+        assertThat(event.getStatus()).isEqualTo("failed");
+        assertThat(event.getAttempts()).isEqualTo(3);
+        assertThat(received).hasSize(3);
+    }
+
+    @Test
+    void missingSecretIsSkippedWithoutHoldingAPermit() {
+        UUID merchantId = createMerchant(null);
+        long unsigned = enqueue(merchantId);
+
+        dispatcher.dispatchDue();
+
+        WebhookOutboxEvent skipped = outboxRepository.findById(unsigned).orElseThrow();
+        assertThat(skipped.getStatus()).isEqualTo("skipped");
+        assertThat(skipped.getLastError()).isEqualTo("no webhook_secret configured");
+        assertThat(received).isEmpty();
+
+        // With the merchant's only permit still free, the next event goes out
+        jdbcTemplate.update("UPDATE merchants SET webhook_secret = ? WHERE id = ?", SECRET, merchantId);
+        long signed = enqueue(merchantId);
+
+        dispatcher.dispatchDue();
+
+        assertThat(awaitRow(signed, e -> !"pending".equals(e.getStatus())).getStatus()).isEqualTo("delivered");
+    }
+
+    @Test
+    void rowsLockedByAnotherDispatcherAreSkipped() throws Exception {
+        UUID merchantId = createMerchant(SECRET);
+        long locked = enqueue(merchantId);
+        long free = enqueue(merchantId);
+        Instant lockedDueAt = outboxRepository.findById(locked).orElseThrow().getNextAttemptAt();
+
+        // Another node's claim transaction holding the row
+        try (Connection other = dataSource.getConnection()) {
+            other.setAutoCommit(false);
+            try (PreparedStatement lock = other.prepareStatement(
+                    "SELECT id FROM webhook_outbox WHERE id = ? FOR UPDATE")) {
+                lock.setLong(1, locked);
+                lock.executeQuery().close();
+            }
+
+            dispatcher.dispatchDue();
+            awaitRow(free, e -> !"pending".equals(e.getStatus()));
+
+            other.rollback();
+        }
+
+        WebhookOutboxEvent untouched = outboxRepository.findById(locked).orElseThrow();
+        assertThat(untouched.getStatus()).isEqualTo("pending");
+        assertThat(untouched.getAttempts()).isZero();
+        assertThat(untouched.getNextAttemptAt()).isEqualTo(lockedDueAt);
+        assertThat(received).extracting(r -> r.headers().get("id")).containsExactly(Long.toString(free));
+    }
+
+    // ---------------- HELPERS ----------------
+
+    private UUID createMerchant(String webhookSecret) {
+        UUID id = UUID.randomUUID();
+        String url = "http://127.0.0.1:" + receiver.getAddress().getPort() + "/webhook";
+        jdbcTemplate.update("INSERT INTO merchants (id, name, email, api_key, api_secret_hash, "
+                        + "webhook_url, webhook_secret, is_active, created_at, updated_at) "
+                        + "VALUES (?, 'Webhook Test', ?, ?, 'unused', ?, ?, TRUE, now(), now())",
+                id, id + "@example.com", "key_" + id, url, webhookSecret);
+        return id;
+    }
+
+    private long enqueue(UUID merchantId) {
+        WebhookOutboxEvent event = new WebhookOutboxEvent();
+        event.setMerchantId(merchantId.toString());
+        event.setEventType("payment.success");
+        event.setPaymentId("pay_" + UUID.randomUUID().toString().replace("-", ""));
+        event.setPayload("{\"event\":\"payment.success\",\"data\":{}}");
+        event.setNextAttemptAt(Instant.now().minusSeconds(1));
+        return outboxRepository.save(event).getId();
+    }
+
+    private void makeDue(long id) {
+        outboxRepository.reschedule(id, Instant.now().minusSeconds(1));
+    }
+
+    // Delivery outcomes are written from the HTTP client's completion
+    private WebhookOutboxEvent awaitRow(long id, Predicate<WebhookOutboxEvent> condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (true) {
+            WebhookOutboxEvent event = outboxRepository.findById(id).orElseThrow();
+            if (condition.test(event) || System.nanoTime() > deadline) {
+                return event;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static String hmac(String secret, String message) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(message.getBytes(StandardCharsets.UTF_8)));
+    }
+}
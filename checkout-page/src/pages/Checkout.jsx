@@ -56,35 +56,68 @@ export default function Checkout() {
       });
   };
 
-  // 🔹 Poll payment status
-const pollPayment = (paymentId) => {
-  // ✅ FIX 3: Guard against undefined / null paymentId
-  if (!paymentId) {
-    console.warn("pollPayment called without paymentId");
-    return;
-  }
-
-  const interval = setInterval(() => {
-    fetch(`http://localhost:8000/api/v1/payments/${paymentId}`, {
-      headers: {
-        "X-Api-Key": "key_test_abc123",
-        "X-Api-Secret": "secret_test_xyz789"
+  const finish = (p) => {
+    setProcessing(false);
+    setPayment(p);
+    if (p.status === "failed") setError(p.error_description);
+  };
+
+  const isTerminal = (p) => p.status === "success" || p.status === "failed";
+
+  // 🔹 Stream payment status (SSE), polling only as a fallback
+  const pollPayment = (paymentId) => {
+    // ✅ FIX 3: Guard against undefined / null paymentId
+    if (!paymentId) {
+      console.warn("pollPayment called without paymentId");
+      return;
+    }
+
+    if (typeof EventSource === "undefined") {
+      pollPaymentFallback(paymentId);
+      return;
+    }
+
+    const source = new EventSource(
+      `http://localhost:8000/api/v1/payments/${paymentId}/public/events`
+    );
+
+    source.addEventListener("status", (event) => {
+      const p = JSON.parse(event.data);
+      if (isTerminal(p)) {
+        source.close();
+        finish(p);
       }
-    })
-      .then(res => res.json())
-      .then(p => {
-        if (p.status === "success" || p.status === "failed") {
-          clearInterval(interval);
-          setProcessing(false);
-          setPayment(p);
-          if (p.status === "failed") setError(p.error_description);
+    });
+
+    // EventSource reconnects by itself after a server timeout; it only ends
+    // up CLOSED when the server refuses the stream (e.g. connection cap)
+    source.onerror = () => {
+      if (source.readyState === EventSource.CLOSED) {
+        pollPaymentFallback(paymentId);
+      }
+    };
+  };
+
+  const pollPaymentFallback = (paymentId) => {
+    const interval = setInterval(() => {
+      fetch(`http://localhost:8000/api/v1/payments/${paymentId}`, {
+        headers: {
+          "X-Api-Key": "key_test_abc123",
+          "X-Api-Secret": "secret_test_xyz789"
         }
       })
-      .catch(err => {
-        console.error("Polling error:", err);
-      });
-  }, 2000);
-};
+        .then(res => res.json())
+        .then(p => {
+          if (isTerminal(p)) {
+            clearInterval(interval);
+            finish(p);
+          }
+        })
+        .catch(err => {
+          console.error("Polling error:", err);
+        });
+    }, 2000);
+  };
 
 
   if (!order) return <div>Loading order...</div>;
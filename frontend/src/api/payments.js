@@ -0,0 +1,25 @@
+import axios from "axios";
+
+const API_BASE = "http://localhost:8000";
+
+const HEADERS = {
+  "X-Api-Key": "key_test_abc123",
+  "X-Api-Secret": "secret_test_xyz789",
+};
+
+// Follows next_cursor until the last page of GET /api/v1/payments
+export async function fetchAllPayments() {
+  const payments = [];
+  let cursor = null;
+
+  do {
+    const res = await axios.get(`${API_BASE}/api/v1/payments`, {
+      headers: HEADERS,
+      params: { limit: 1000, ...(cursor ? { cursor } : {}) },
+    });
+    payments.push(...res.data.items);
+    cursor = res.data.next_cursor;
+  } while (cursor);
+
+  return payments;
+}
@@ -1,20 +1,12 @@
 import { useEffect, useState } from "react";
-import axios from "axios";
-
-const API_BASE = "http://localhost:8000";
+import { fetchAllPayments } from "../api/payments";
 
 export default function Dashboard() {
   const [payments, setPayments] = useState([]);
 
   useEffect(() => {
-    axios
-      .get(`${API_BASE}/api/v1/payments`, {
-        headers: {
-          "X-Api-Key": "key_test_abc123",
-          "X-Api-Secret": "secret_test_xyz789",
-        },
-      })
-      .then((res) => setPayments(res.data))
+    fetchAllPayments()
+      .then(setPayments)
       .catch(() => setPayments([]));
   }, []);
 